@@ -0,0 +1,67 @@
+package com.filemanager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 准入控制配置
+ * 对应 application.yml 中的 file-manager.admission，按操作类别 (tree/read/write/download) 配置并发限制
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file-manager.admission")
+public class AdmissionProperties {
+
+    /**
+     * 是否启用准入控制
+     */
+    private boolean enabled = true;
+
+    /**
+     * 各操作类别的限制，未配置的类别使用默认值
+     */
+    private Map<String, Limit> classes = new LinkedHashMap<>();
+
+    @Data
+    public static class Limit {
+
+        /**
+         * 初始并发上限
+         */
+        private int initialLimit = 8;
+
+        /**
+         * 并发上限的下界
+         */
+        private int minLimit = 1;
+
+        /**
+         * 并发上限的上界
+         */
+        private int maxLimit = 32;
+
+        /**
+         * 目标延迟 (毫秒)，超过时下调并发上限
+         */
+        private long targetLatencyMs = 1000;
+
+        /**
+         * 等待队列长度
+         */
+        private int queueSize = 16;
+
+        /**
+         * 排队等待的最长时间 (毫秒)
+         */
+        private long maxWaitMs = 500;
+
+        /**
+         * 拒绝时返回的 Retry-After (秒)
+         */
+        private int retryAfterSeconds = 1;
+    }
+}
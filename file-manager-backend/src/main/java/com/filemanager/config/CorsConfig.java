@@ -25,6 +25,9 @@ public class CorsConfig {
         // 允许的请求方法
         config.addAllowedMethod("*");
         
+        // 允许前端读取的响应头
+        config.addExposedHeader("X-File-Profile");
+        
         // 允许携带凭证
         config.setAllowCredentials(true);
         
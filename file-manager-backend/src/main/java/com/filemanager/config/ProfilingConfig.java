@@ -0,0 +1,58 @@
+package com.filemanager.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filemanager.profiling.RequestProfile;
+import com.filemanager.profiling.SerializationEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * 剖析配置
+ * 将 Jackson 消息转换器替换为记录序列化耗时的版本：耗时计入当前请求的 {@link RequestProfile}，
+ * 并发出 com.filemanager.Serialization JFR 事件
+ */
+@Configuration
+public class ProfilingConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter jackson) {
+                converters.set(i, new ProfilingJacksonConverter(jackson.getObjectMapper()));
+            }
+        }
+    }
+
+    static class ProfilingJacksonConverter extends MappingJackson2HttpMessageConverter {
+
+        ProfilingJacksonConverter(ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        @Override
+        protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                throws IOException, HttpMessageNotWritableException {
+            SerializationEvent event = new SerializationEvent();
+            event.begin();
+            long start = System.nanoTime();
+            try {
+                super.writeInternal(object, type, outputMessage);
+            } finally {
+                RequestProfile.addSerialization(System.nanoTime() - start);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.type = type != null ? type.getTypeName() : object.getClass().getName();
+                    event.commit();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.filemanager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多根目录配置
+ * 对应 application.yml 中的 file-manager.roots，未配置时使用 file-manager.root-path 作为默认根目录
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file-manager")
+public class RootsProperties {
+
+    /**
+     * 受管理的根目录列表，第一个为默认根目录
+     */
+    private List<Root> roots = new ArrayList<>();
+
+    @Data
+    public static class Root {
+
+        /**
+         * 根目录标识，仅允许字母、数字、下划线和连字符
+         */
+        private String id;
+
+        /**
+         * 根目录路径
+         */
+        private String path;
+
+        /**
+         * 专用 I/O 线程数
+         */
+        private int ioThreads = 4;
+
+        /**
+         * 同时处理的请求数上限 (含排队)
+         */
+        private int maxConcurrent = 16;
+
+        /**
+         * 同时进行的下载传输数上限，传输许可与上面的处理许可相互独立
+         */
+        private int maxTransfers = 8;
+
+        /**
+         * 元数据线程数，用于 exists、属性读取等不占用处理许可的轻量操作
+         */
+        private int metadataThreads = 2;
+
+        /**
+         * 元数据操作的等待队列长度，排满时返回 ROOT_BUSY
+         */
+        private int metadataQueueSize = 64;
+
+        /**
+         * 等待处理许可的超时时间 (毫秒)
+         */
+        private long acquireTimeoutMs = 5000;
+
+        /**
+         * 等待单次 I/O 操作完成的超时时间 (毫秒)，超时返回 ROOT_BUSY
+         */
+        private long ioTimeoutMs = 30000;
+
+        /**
+         * 读请求结果缓存条目上限
+         */
+        private int cacheEntries = 256;
+    }
+}
@@ -3,18 +3,24 @@ package com.filemanager.controller;
 import com.filemanager.dto.ApiResponse;
 import com.filemanager.dto.FileContentDTO;
 import com.filemanager.dto.FileNodeDTO;
+import com.filemanager.profiling.FileIoEvent;
+import com.filemanager.profiling.RequestProfile;
+import com.filemanager.service.ContentHashService;
 import com.filemanager.service.FileService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
-import java.net.MalformedURLException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Map;
 
 /**
@@ -27,6 +33,7 @@ import java.util.Map;
 public class FileController {
     
     private final FileService fileService;
+    private final ContentHashService contentHashService;
     
     /**
      * 获取目录树结构
@@ -108,49 +115,91 @@ public class FileController {
     /**
      * 下载/流式传输文件（用于PDF等二进制文件）
      * GET /api/files/download?path={path}
+     * 文件检查在根目录的元数据线程中执行；传输在请求线程上流式完成，期间占用该根目录的一个传输许可
      */
     @GetMapping("/download")
     public ResponseEntity<Resource> downloadFile(@RequestParam String path) {
         log.info("下载文件: {}", path);
-        try {
-            Path filePath = fileService.getFilePath(path);
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (!resource.exists() || !resource.isReadable()) {
-                return ResponseEntity.notFound().build();
+        DownloadTarget target = fileService.statOnRoot(path, file -> {
+            if (!Files.isReadable(file)) {
+                return null;
             }
-            
-            String contentType = "application/octet-stream";
-            String filename = filePath.getFileName().toString();
-            String lowerFilename = filename.toLowerCase();
-            
-            // 根据文件扩展名设置Content-Type
-            if (lowerFilename.endsWith(".pdf")) {
-                contentType = "application/pdf";
-            } else if (lowerFilename.endsWith(".jpg") || lowerFilename.endsWith(".jpeg")) {
-                contentType = "image/jpeg";
-            } else if (lowerFilename.endsWith(".png")) {
-                contentType = "image/png";
-            } else if (lowerFilename.endsWith(".gif")) {
-                contentType = "image/gif";
-            } else if (lowerFilename.endsWith(".bmp")) {
-                contentType = "image/bmp";
-            } else if (lowerFilename.endsWith(".webp")) {
-                contentType = "image/webp";
-            } else if (lowerFilename.endsWith(".svg")) {
-                contentType = "image/svg+xml";
-            } else if (lowerFilename.endsWith(".ico")) {
-                contentType = "image/x-icon";
-            }
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                    .body(resource);
-        } catch (MalformedURLException e) {
-            log.error("文件路径错误: {}", path, e);
-            return ResponseEntity.badRequest().build();
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            return attrs.isRegularFile() ? new DownloadTarget(file, attrs.size()) : null;
+        });
+        if (target == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Path filePath = target.file();
+        Resource resource = new FileSystemResource(filePath);
+        
+        // 基于内容哈希的弱 ETag：同一内容可能以 gzip 或原样返回，两种表示共用一个校验值
+        // If-None-Match 命中时由框架返回 304
+        String hash = contentHashService.getETag(path);
+        
+        // 许可在请求结束 (响应体写完) 后释放，下载事件同时结束，耗时覆盖实际传输
+        Runnable releasePermit = fileService.acquireTransferPermit();
+        FileIoEvent event = new FileIoEvent();
+        event.begin();
+        long start = System.nanoTime();
+        RequestContextHolder.currentRequestAttributes().registerDestructionCallback("downloadTransferPermit", () -> {
+            releasePermit.run();
+            recordDownload(event, path, target.size(), start);
+        }, RequestAttributes.SCOPE_REQUEST);
+        
+        String contentType = "application/octet-stream";
+        String filename = filePath.getFileName().toString();
+        String lowerFilename = filename.toLowerCase();
+        
+        // 根据文件扩展名设置Content-Type
+        if (lowerFilename.endsWith(".pdf")) {
+            contentType = "application/pdf";
+        } else if (lowerFilename.endsWith(".jpg") || lowerFilename.endsWith(".jpeg")) {
+            contentType = "image/jpeg";
+        } else if (lowerFilename.endsWith(".png")) {
+            contentType = "image/png";
+        } else if (lowerFilename.endsWith(".gif")) {
+            contentType = "image/gif";
+        } else if (lowerFilename.endsWith(".bmp")) {
+            contentType = "image/bmp";
+        } else if (lowerFilename.endsWith(".webp")) {
+            contentType = "image/webp";
+        } else if (lowerFilename.endsWith(".svg")) {
+            contentType = "image/svg+xml";
+        } else if (lowerFilename.endsWith(".ico")) {
+            contentType = "image/x-icon";
+        }
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(contentType))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
+        if (hash != null) {
+            response.eTag("W/\"" + hash + "\"");
         }
+        return response.body(resource);
+    }
+
+    /**
+     * 记录下载：在请求结束时调用，耗时从控制器返回前到响应体写完；字节数为文件大小 (范围请求时为上限)
+     */
+    private void recordDownload(FileIoEvent event, String path, long bytes, long start) {
+        if (!event.isEnabled() && RequestProfile.current() == null) {
+            return;
+        }
+        RequestProfile.addRead(bytes, System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = FileIoEvent.DOWNLOAD;
+            event.path = path;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * 待下载的文件及其大小
+     */
+    private record DownloadTarget(Path file, long size) {
     }
     
     /**
@@ -164,6 +213,25 @@ public class FileController {
         return ResponseEntity.ok(ApiResponse.success(rootPath));
     }
     
+    /**
+     * 当前根目录路径是否允许修改，前端据此决定是否提供修改入口
+     * GET /api/files/config/root-path/mutable
+     */
+    @GetMapping("/config/root-path/mutable")
+    public ResponseEntity<ApiResponse<Boolean>> isRootPathMutable() {
+        return ResponseEntity.ok(ApiResponse.success(fileService.isRootPathMutable()));
+    }
+    
+    /**
+     * 获取所有受管理的根目录
+     * GET /api/files/config/roots
+     */
+    @GetMapping("/config/roots")
+    public ResponseEntity<ApiResponse<Map<String, String>>> getRoots() {
+        log.info("获取根目录列表");
+        return ResponseEntity.ok(ApiResponse.success(fileService.getRoots()));
+    }
+    
     /**
      * 设置根目录路径
      * PUT /api/files/config/root-path
@@ -0,0 +1,57 @@
+package com.filemanager.controller;
+
+import com.filemanager.dto.ApiResponse;
+import com.filemanager.dto.DuplicateGroupDTO;
+import com.filemanager.service.ContentHashService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内容哈希与重复文件 REST API 控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/files/hashes")
+@RequiredArgsConstructor
+public class HashController {
+
+    private final ContentHashService contentHashService;
+
+    /**
+     * 在后台扫描当前根目录
+     * POST /api/files/hashes/scan
+     */
+    @PostMapping("/scan")
+    public ResponseEntity<ApiResponse<Boolean>> startScan() {
+        log.info("启动哈希扫描");
+        boolean started = contentHashService.startScan();
+        return ResponseEntity.ok(ApiResponse.success(started, started ? "扫描已启动" : "扫描正在进行中"));
+    }
+
+    /**
+     * 获取扫描状态
+     * GET /api/files/hashes/status
+     */
+    @GetMapping("/status")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStatus() {
+        return ResponseEntity.ok(ApiResponse.success(contentHashService.getScanStatus()));
+    }
+
+    /**
+     * 获取重复文件报告
+     * GET /api/files/hashes/duplicates
+     */
+    @GetMapping("/duplicates")
+    public ResponseEntity<ApiResponse<List<DuplicateGroupDTO>>> getDuplicates() {
+        log.info("获取重复文件报告");
+        return ResponseEntity.ok(ApiResponse.success(contentHashService.findDuplicates()));
+    }
+}
@@ -0,0 +1,42 @@
+package com.filemanager.controller;
+
+import com.filemanager.dto.ApiResponse;
+import com.filemanager.filter.AdmissionControlFilter;
+import com.filemanager.service.RootRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 运行指标 REST API 控制器
+ */
+@RestController
+@RequestMapping("/api/files/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private final RootRegistry rootRegistry;
+    private final AdmissionControlFilter admissionControlFilter;
+
+    /**
+     * 获取各根目录的 I/O 与请求合并统计
+     * GET /api/files/metrics/roots
+     */
+    @GetMapping("/roots")
+    public ResponseEntity<ApiResponse<Map<String, Map<String, Object>>>> getRootStats() {
+        return ResponseEntity.ok(ApiResponse.success(rootRegistry.stats()));
+    }
+
+    /**
+     * 获取各根目录、各操作类别的准入控制状态
+     * GET /api/files/metrics/admission
+     */
+    @GetMapping("/admission")
+    public ResponseEntity<ApiResponse<Map<String, Map<String, Map<String, Object>>>>> getAdmissionStats() {
+        return ResponseEntity.ok(ApiResponse.success(admissionControlFilter.stats()));
+    }
+}
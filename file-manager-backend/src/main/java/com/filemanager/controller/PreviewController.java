@@ -0,0 +1,52 @@
+package com.filemanager.controller;
+
+import com.filemanager.dto.ApiResponse;
+import com.filemanager.dto.SheetPageDTO;
+import com.filemanager.service.OfficePreviewService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 文件预览 REST API 控制器
+ */
+@Slf4j
+@Lazy
+@RestController
+@RequestMapping("/api/files/preview")
+@RequiredArgsConstructor
+public class PreviewController {
+
+    private final OfficePreviewService officePreviewService;
+
+    /**
+     * 获取 Word 文档的 HTML 预览
+     * GET /api/files/preview/document?path={path}
+     */
+    @GetMapping("/document")
+    public ResponseEntity<ApiResponse<String>> previewDocument(@RequestParam String path) {
+        log.info("预览文档: {}", path);
+        String html = officePreviewService.renderDocument(path);
+        return ResponseEntity.ok(ApiResponse.success(html));
+    }
+
+    /**
+     * 分页获取 Excel 工作表预览
+     * GET /api/files/preview/sheet?path={path}&sheet={sheet}&page={page}&size={size}
+     */
+    @GetMapping("/sheet")
+    public ResponseEntity<ApiResponse<SheetPageDTO>> previewSheet(
+            @RequestParam String path,
+            @RequestParam(defaultValue = "0") int sheet,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "0") int size) {
+        log.info("预览表格: {} (sheet={}, page={})", path, sheet, page);
+        SheetPageDTO result = officePreviewService.renderSheetPage(path, sheet, page, size);
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+}
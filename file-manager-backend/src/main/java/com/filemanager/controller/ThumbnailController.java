@@ -0,0 +1,65 @@
+package com.filemanager.controller;
+
+import com.filemanager.dto.ApiResponse;
+import com.filemanager.service.ThumbnailService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缩略图 REST API 控制器
+ */
+@Slf4j
+@Lazy
+@RestController
+@RequestMapping("/api/files/thumbnail")
+@RequiredArgsConstructor
+public class ThumbnailController {
+
+    private final ThumbnailService thumbnailService;
+
+    /**
+     * 获取图片缩略图 (JPEG)
+     * GET /api/files/thumbnail?path={path}&size={size}
+     */
+    @GetMapping
+    public ResponseEntity<Resource> getThumbnail(
+            @RequestParam String path,
+            @RequestParam(defaultValue = "0") int size) {
+        log.debug("获取缩略图: {}", path);
+        Path thumbnail = thumbnailService.getThumbnail(path, size);
+        String etag = thumbnail.getFileName().toString();
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePrivate())
+                .eTag(etag.substring(0, etag.lastIndexOf('.')))
+                .body(new FileSystemResource(thumbnail));
+    }
+
+    /**
+     * 在后台预生成目录下图片的缩略图
+     * POST /api/files/thumbnail/prefetch
+     */
+    @PostMapping("/prefetch")
+    public ResponseEntity<ApiResponse<Integer>> prefetch(@RequestBody Map<String, String> request) {
+        String path = request.getOrDefault("path", "/");
+        log.info("预生成缩略图: {}", path);
+        int submitted = thumbnailService.prefetchDirectory(path);
+        return ResponseEntity.ok(ApiResponse.success(submitted));
+    }
+}
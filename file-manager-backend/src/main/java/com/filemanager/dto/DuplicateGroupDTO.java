@@ -0,0 +1,39 @@
+package com.filemanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 重复文件组数据传输对象
+ * 内容完全相同的一组文件
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateGroupDTO {
+
+    /**
+     * 内容哈希 (SHA-256)
+     */
+    private String hash;
+
+    /**
+     * 单个文件大小 (字节)
+     */
+    private long size;
+
+    /**
+     * 可回收的空间 (字节)，即 size * (文件数 - 1)
+     */
+    private long wastedBytes;
+
+    /**
+     * 相同内容的文件路径列表
+     */
+    private List<String> paths;
+}
@@ -1,5 +1,6 @@
 package com.filemanager.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -53,6 +54,12 @@ public class FileNodeDTO {
      */
     private LocalDateTime lastModified;
     
+    /**
+     * 最后修改时间 (epoch 毫秒)，不受时区与夏令时影响，用于持久化；不参与序列化
+     */
+    @JsonIgnore
+    private Long lastModifiedMillis;
+    
     /**
      * 判断是否为目录
      */
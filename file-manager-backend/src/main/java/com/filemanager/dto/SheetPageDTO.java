@@ -0,0 +1,54 @@
+package com.filemanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 表格分页预览数据传输对象
+ * 用于按页返回 Excel 工作表内容
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SheetPageDTO {
+
+    /**
+     * 文件路径
+     */
+    private String path;
+
+    /**
+     * 所有工作表名称
+     */
+    private List<String> sheetNames;
+
+    /**
+     * 当前工作表索引 (从 0 开始)
+     */
+    private int sheetIndex;
+
+    /**
+     * 当前页码 (从 0 开始)
+     */
+    private int page;
+
+    /**
+     * 每页行数
+     */
+    private int pageSize;
+
+    /**
+     * 当前页的行数据，每行为按列排列的单元格文本
+     */
+    private List<List<String>> rows;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+}
@@ -2,6 +2,7 @@ package com.filemanager.exception;
 
 import com.filemanager.dto.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -22,15 +23,21 @@ public class GlobalExceptionHandler {
         log.error("文件操作异常: {} - {}", e.getErrorCode(), e.getMessage());
         
         HttpStatus status = switch (e.getErrorCode()) {
-            case "FILE_NOT_FOUND", "DIRECTORY_NOT_FOUND" -> HttpStatus.NOT_FOUND;
-            case "PATH_TRAVERSAL" -> HttpStatus.FORBIDDEN;
+            case "FILE_NOT_FOUND", "DIRECTORY_NOT_FOUND", "ROOT_NOT_FOUND" -> HttpStatus.NOT_FOUND;
+            case "PATH_TRAVERSAL", "PERMISSION_DENIED" -> HttpStatus.FORBIDDEN;
             case "FILE_EXISTS" -> HttpStatus.CONFLICT;
-            case "INVALID_NAME", "INVALID_PATH" -> HttpStatus.BAD_REQUEST;
+            case "FILE_TOO_LARGE" -> HttpStatus.PAYLOAD_TOO_LARGE;
+            case "INVALID_NAME", "INVALID_PATH", "INVALID_PARAMETER", "UNSUPPORTED_TYPE" -> HttpStatus.BAD_REQUEST;
+            case "PREVIEW_BUSY", "ROOT_BUSY" -> HttpStatus.SERVICE_UNAVAILABLE;
             default -> HttpStatus.INTERNAL_SERVER_ERROR;
         };
         
-        return ResponseEntity.status(status)
-                .body(ApiResponse.error(e.getErrorCode(), e.getMessage()));
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+        // 繁忙类错误提示客户端稍后重试
+        if (status == HttpStatus.SERVICE_UNAVAILABLE) {
+            builder.header(HttpHeaders.RETRY_AFTER, "1");
+        }
+        return builder.body(ApiResponse.error(e.getErrorCode(), e.getMessage()));
     }
     
     /**
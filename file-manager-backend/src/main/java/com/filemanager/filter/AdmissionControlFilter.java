@@ -0,0 +1,283 @@
+package com.filemanager.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filemanager.config.AdmissionProperties;
+import com.filemanager.dto.ApiResponse;
+import com.filemanager.service.ManagedRoot;
+import com.filemanager.service.RootContext;
+import com.filemanager.service.RootRegistry;
+import com.filemanager.util.AdaptiveLimiter;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 准入控制过滤器
+ * 按 根目录+操作类别 限制昂贵请求 (目录树、文件读取、写入、下载/预览) 的并发数，
+ * 并发上限根据观测延迟自适应调整 (AIMD)；超出容量的请求快速返回 503 与 Retry-After。
+ * 每个根目录拥有独立的限制器，慢速挂载点的高延迟只会降低该根目录的上限。
+ * 各类别的上限及其总和不超过根目录的并发许可数 (max-concurrent)，自适应增长不会让请求在 I/O 许可上排队。
+ * 下载类请求的延迟只统计到响应首字节，客户端接收响应体的耗时不计入。
+ * exists、配置等轻量请求不受限制，重请求饱和时仍能快速响应。
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@RequiredArgsConstructor
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    public static final String CLASS_TREE = "tree";
+    public static final String CLASS_READ = "read";
+    public static final String CLASS_WRITE = "write";
+    public static final String CLASS_DOWNLOAD = "download";
+
+    private final AdmissionProperties properties;
+    private final ObjectMapper objectMapper;
+    private final RootRegistry rootRegistry;
+
+    // 根目录标识 -> 操作类别 -> 限制器
+    private final Map<String, Map<String, AdaptiveLimiter>> limiters = new LinkedHashMap<>();
+    private final Map<String, AdmissionProperties.Limit> limits = new LinkedHashMap<>();
+
+    @PostConstruct
+    void init() {
+        register(CLASS_TREE, 4, 2000);
+        register(CLASS_READ, 16, 500);
+        register(CLASS_WRITE, 8, 1000);
+        register(CLASS_DOWNLOAD, 8, 30000);
+        for (ManagedRoot root : rootRegistry.all()) {
+            Map<String, Integer> maxLimits = maxLimits(limits, root.getMaxConcurrent());
+            Map<String, AdaptiveLimiter> byClass = new LinkedHashMap<>();
+            limits.forEach((name, limit) -> {
+                int maxLimit = maxLimits.get(name);
+                byClass.put(name, new AdaptiveLimiter(limit.getInitialLimit(),
+                        Math.min(limit.getMinLimit(), maxLimit), maxLimit,
+                        limit.getTargetLatencyMs(), limit.getQueueSize()));
+            });
+            limiters.put(root.getId(), byClass);
+            log.info("根目录 [{}] 准入上限 (并发许可 {}): {}", root.getId(), root.getMaxConcurrent(), maxLimits);
+        }
+    }
+
+    /**
+     * 按根目录容量收紧各类别的并发上限：单个类别不超过容量，
+     * 总和超过容量时每个类别先保留 1，其余容量按配置比例分配
+     * (类别数多于容量时每个类别为 1)
+     * @param limits 各类别的配置
+     * @param capacity 根目录的并发许可数
+     * @return 类别 -> 实际使用的并发上限
+     */
+    static Map<String, Integer> maxLimits(Map<String, AdmissionProperties.Limit> limits, int capacity) {
+        Map<String, Integer> maxLimits = new LinkedHashMap<>();
+        long total = 0;
+        for (Map.Entry<String, AdmissionProperties.Limit> entry : limits.entrySet()) {
+            int maxLimit = Math.max(1, Math.min(entry.getValue().getMaxLimit(), capacity));
+            maxLimits.put(entry.getKey(), maxLimit);
+            total += maxLimit;
+        }
+        if (total > capacity) {
+            int classes = maxLimits.size();
+            long spare = Math.max(0, capacity - classes);
+            long excess = total - classes;
+            maxLimits.replaceAll((name, maxLimit) -> 1 + (int) ((maxLimit - 1) * spare / excess));
+        }
+        return maxLimits;
+    }
+
+    /**
+     * 注册操作类别，未在配置中出现的类别使用给定的默认初始上限与目标延迟
+     */
+    private void register(String name, int defaultInitialLimit, long defaultTargetLatencyMs) {
+        AdmissionProperties.Limit limit = properties.getClasses().get(name);
+        if (limit == null) {
+            limit = new AdmissionProperties.Limit();
+            limit.setInitialLimit(defaultInitialLimit);
+            limit.setTargetLatencyMs(defaultTargetLatencyMs);
+        }
+        limits.put(name, limit);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || classify(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String operationClass = classify(request);
+        String rootId = rootId();
+        if (rootId == null) {
+            // 未知的根目录不占用限制器，由控制器返回 ROOT_NOT_FOUND
+            chain.doFilter(request, response);
+            return;
+        }
+        AdaptiveLimiter limiter = limiters.get(rootId).get(operationClass);
+        AdmissionProperties.Limit limit = limits.get(operationClass);
+
+        boolean acquired;
+        try {
+            acquired = limiter.acquire(limit.getMaxWaitMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            log.warn("请求被准入控制拒绝 [{}/{}]: {} {}", rootId, operationClass,
+                    request.getMethod(), request.getRequestURI());
+            reject(response, limit.getRetryAfterSeconds());
+            return;
+        }
+
+        long start = System.nanoTime();
+        FirstByteResponse timed = CLASS_DOWNLOAD.equals(operationClass) ? new FirstByteResponse(response) : null;
+        boolean failed = true;
+        try {
+            chain.doFilter(request, timed != null ? timed : response);
+            failed = response.getStatus() == HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+        } finally {
+            long end = timed != null && timed.firstByteNanos != 0 ? timed.firstByteNanos : System.nanoTime();
+            limiter.release(end - start, failed);
+        }
+    }
+
+    /**
+     * 当前请求选择的根目录标识，根目录不存在时返回 null
+     */
+    private String rootId() {
+        String id = RootContext.get();
+        if (id == null) {
+            return rootRegistry.current().getId();
+        }
+        return limiters.containsKey(id) ? id : null;
+    }
+
+    /**
+     * 根据请求路径与方法判断操作类别，轻量请求返回 null
+     */
+    static String classify(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String method = request.getMethod();
+        return switch (uri) {
+            case "/api/files/tree" -> CLASS_TREE;
+            case "/api/files/content" -> "GET".equals(method) ? CLASS_READ : CLASS_WRITE;
+            case "/api/files/directory", "/api/files/file" -> CLASS_WRITE;
+            case "/api/files/download", "/api/files/thumbnail" -> CLASS_DOWNLOAD;
+            default -> uri.startsWith("/api/files/preview/") ? CLASS_DOWNLOAD : null;
+        };
+    }
+
+    private void reject(HttpServletResponse response, int retryAfterSeconds) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("SERVER_BUSY", "服务器繁忙，请稍后重试"));
+    }
+
+    /**
+     * 各根目录、各操作类别的限制器状态
+     */
+    public Map<String, Map<String, Map<String, Object>>> stats() {
+        Map<String, Map<String, Map<String, Object>>> stats = new LinkedHashMap<>();
+        limiters.forEach((rootId, byClass) -> {
+            Map<String, Map<String, Object>> classStats = new LinkedHashMap<>();
+            byClass.forEach((name, limiter) -> classStats.put(name, limiter.stats()));
+            stats.put(rootId, classStats);
+        });
+        return stats;
+    }
+
+    /**
+     * 记录响应体首次写出时刻的响应包装，用于排除客户端接收响应体的耗时
+     */
+    private static class FirstByteResponse extends HttpServletResponseWrapper {
+
+        private volatile long firstByteNanos;
+        private ServletOutputStream outputStream;
+
+        FirstByteResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        private void mark() {
+            if (firstByteNanos == 0) {
+                firstByteNanos = System.nanoTime();
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        mark();
+                        delegate.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        mark();
+                        delegate.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        mark();
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        delegate.setWriteListener(listener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            mark();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            mark();
+            super.flushBuffer();
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.filemanager.filter;
+
+import com.filemanager.exception.FileOperationException;
+import com.filemanager.service.ContentHashService;
+import com.filemanager.service.FileService;
+import com.filemanager.util.FileTypeUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 预压缩内容过滤器
+ * 对较大的文本文件内容 (/content 与 /download) 缓存 gzip 压缩后的完整响应，
+ * 键为 路径+大小+修改时间，热点文件无需重复读取、序列化与压缩。
+ * 只缓冲大小不超过 max-entry-bytes 的文件，更大的文件 (包括大文件下载) 不经过本过滤器，直接流式输出。
+ * 压缩并发数用尽时以 Content-Encoding: identity 原样输出，容器的 server.compression 不会再压缩该响应。
+ * 缓存条目保存 ETag / Last-Modified，命中缓存时同样处理条件请求。
+ * 下载的 ETag 来自哈希索引，首次下载时尚未计算，缓存条目缺少 ETag 时在命中时重新查询索引并补全。
+ * 其余 JSON/文本响应由 server.compression 即时压缩。
+ * 在 RequestProfileFilter 之后执行，命中缓存的请求仍会返回剖析摘要头。
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 40)
+@RequiredArgsConstructor
+public class PrecompressedContentFilter extends OncePerRequestFilter {
+
+    private static final String CONTENT_URI = "/api/files/content";
+    private static final String DOWNLOAD_URI = "/api/files/download";
+
+    private final FileService fileService;
+    private final ContentHashService contentHashService;
+
+    @Value("${file-manager.compression.enabled:true}")
+    private boolean enabled;
+
+    @Value("${file-manager.compression.min-size:8192}")
+    private long minSize;
+
+    @Value("${file-manager.compression.max-entry-bytes:4194304}")
+    private long maxEntryBytes;
+
+    @Value("${file-manager.compression.max-cache-bytes:67108864}")
+    private long maxCacheBytes;
+
+    @Value("${file-manager.compression.max-concurrent:2}")
+    private int maxConcurrent;
+
+    private Semaphore compressPermits;
+
+    // 缓存：键 -> 压缩后的响应，按访问顺序排列，容量按压缩后字节数计算
+    private final LinkedHashMap<String, CompressedEntry> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private long cacheBytes;
+
+    @PostConstruct
+    void init() {
+        compressPermits = new Semaphore(Math.max(1, maxConcurrent));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String uri = request.getRequestURI();
+        return !CONTENT_URI.equals(uri) && !DOWNLOAD_URI.equals(uri);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = eligibleKey(request);
+        if (key == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        CompressedEntry entry = lookup(key);
+        if (entry != null) {
+            entry = withETag(request, key, entry);
+            if (!notModified(request, response, entry)) {
+                writeCompressed(response, entry);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        byte[] body = wrapper.getContentAsByteArray();
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || body.length > maxEntryBytes) {
+            // 非成功响应 (包括 304) 或序列化后过大时原样输出
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        if (!compressPermits.tryAcquire()) {
+            // 压缩预算已用尽：标记为 identity，避免容器再次即时压缩
+            wrapper.setHeader(HttpHeaders.CONTENT_ENCODING, "identity");
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        try {
+            entry = new CompressedEntry(gzip(body), wrapper.getContentType(),
+                    wrapper.getHeader(HttpHeaders.CONTENT_DISPOSITION),
+                    wrapper.getHeader(HttpHeaders.ETAG), lastModified(wrapper));
+        } finally {
+            compressPermits.release();
+        }
+        store(key, entry);
+        writeCompressed(response, entry);
+    }
+
+    /**
+     * 下载条目缺少 ETag 时从哈希索引查询 (后台计算完成后即可得到)，查到后写回缓存
+     * 缓存键包含大小与修改时间，索引中与之匹配的哈希即为该条目内容的哈希
+     */
+    private CompressedEntry withETag(HttpServletRequest request, String key, CompressedEntry entry) {
+        if (entry.etag() != null || !DOWNLOAD_URI.equals(request.getRequestURI())) {
+            return entry;
+        }
+        String hash = contentHashService.getETag(request.getParameter("path"));
+        if (hash == null) {
+            return entry;
+        }
+        CompressedEntry updated = new CompressedEntry(entry.body(), entry.contentType(),
+                entry.contentDisposition(), "W/\"" + hash + "\"", entry.lastModified());
+        store(key, updated);
+        return updated;
+    }
+
+    /**
+     * 按缓存条目的校验头处理 If-None-Match / If-Modified-Since，未变化时返回 304
+     */
+    private boolean notModified(HttpServletRequest request, HttpServletResponse response, CompressedEntry entry) {
+        if (entry.etag() == null && entry.lastModified() < 0) {
+            return false;
+        }
+        if (!new ServletWebRequest(request, response).checkNotModified(entry.etag(), entry.lastModified())) {
+            return false;
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        return true;
+    }
+
+    private long lastModified(HttpServletResponse response) {
+        String value = response.getHeader(HttpHeaders.LAST_MODIFIED);
+        if (value == null) {
+            return -1;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.LAST_MODIFIED, value);
+        return headers.getLastModified();
+    }
+
+    /**
+     * 判断请求是否适用预压缩，适用时返回缓存键，否则返回 null
+     */
+    private String eligibleKey(HttpServletRequest request) {
+        if (!acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))
+                || request.getHeader(HttpHeaders.RANGE) != null) {
+            return null;
+        }
+        String path = request.getParameter("path");
+        if (path == null || !FileTypeUtil.isTextFile(getExtension(path))) {
+            return null;
+        }
+        try {
+            // 在根目录的元数据线程中读取属性
+            return fileService.statOnRoot(path, file -> {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                if (!attrs.isRegularFile() || attrs.size() < minSize || attrs.size() > maxEntryBytes) {
+                    // 过小的文件不值得缓存，过大的文件不缓冲到堆中
+                    return null;
+                }
+                return request.getRequestURI() + "|" + file.toAbsolutePath() + "|" + attrs.size()
+                        + "|" + attrs.lastModifiedTime().toMillis();
+            });
+        } catch (FileOperationException e) {
+            // 交由控制器返回正常的错误响应
+            return null;
+        }
+    }
+
+    /**
+     * 解析 Accept-Encoding，判断客户端是否接受 gzip (q=0 视为拒绝)
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void writeCompressed(HttpServletResponse response, CompressedEntry entry) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        if (entry.contentType() != null) {
+            response.setContentType(entry.contentType());
+        }
+        if (entry.contentDisposition() != null) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, entry.contentDisposition());
+        }
+        if (entry.etag() != null) {
+            response.setHeader(HttpHeaders.ETAG, entry.etag());
+        }
+        if (entry.lastModified() >= 0) {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, entry.lastModified());
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setContentLength(entry.body().length);
+        response.getOutputStream().write(entry.body());
+    }
+
+    private byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private synchronized CompressedEntry lookup(String key) {
+        return cache.get(key);
+    }
+
+    /**
+     * 写入缓存，超出字节预算时淘汰最久未访问的条目
+     */
+    private synchronized void store(String key, CompressedEntry entry) {
+        CompressedEntry previous = cache.put(key, entry);
+        cacheBytes += entry.body().length - (previous != null ? previous.body().length : 0);
+        Iterator<Map.Entry<String, CompressedEntry>> it = cache.entrySet().iterator();
+        while (cacheBytes > maxCacheBytes && it.hasNext()) {
+            Map.Entry<String, CompressedEntry> eldest = it.next();
+            it.remove();
+            cacheBytes -= eldest.getValue().body().length;
+        }
+        log.debug("预压缩缓存: {} 条, {} 字节", cache.size(), cacheBytes);
+    }
+
+    private String getExtension(String filename) {
+        int lastDot = filename.lastIndexOf('.');
+        if (lastDot > 0 && lastDot < filename.length() - 1) {
+            return filename.substring(lastDot + 1).toLowerCase();
+        }
+        return "";
+    }
+
+    /**
+     * 压缩后的响应及其校验头 (lastModified 为 -1 表示没有 Last-Modified)
+     */
+    private record CompressedEntry(byte[] body, String contentType, String contentDisposition,
+                                   String etag, long lastModified) {
+    }
+}
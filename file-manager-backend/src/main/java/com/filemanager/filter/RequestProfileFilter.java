@@ -0,0 +1,75 @@
+package com.filemanager.filter;
+
+import com.filemanager.profiling.FileRequestEvent;
+import com.filemanager.profiling.RequestProfile;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * 请求剖析过滤器
+ * JFR 正在记录 com.filemanager.FileRequest 事件，或客户端携带 X-File-Profile 请求头 (需开启配置) 时，
+ * 为请求绑定 {@link RequestProfile} 统计 I/O 与各阶段耗时；两者都不满足时直接放行，几乎没有额外开销。
+ * 返回摘要头时响应体先缓冲，以便摘要包含序列化耗时；下载接口不缓冲，因此不返回摘要头。
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+public class RequestProfileFilter extends OncePerRequestFilter {
+
+    public static final String PROFILE_HEADER = "X-File-Profile";
+
+    private static final String DOWNLOAD_URI = "/api/files/download";
+
+    @Value("${file-manager.profiling.response-header-enabled:false}")
+    private boolean responseHeaderEnabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/files/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        FileRequestEvent event = new FileRequestEvent();
+        boolean withHeader = responseHeaderEnabled && request.getHeader(PROFILE_HEADER) != null
+                && !DOWNLOAD_URI.equals(request.getRequestURI());
+        if (!event.isEnabled() && !withHeader) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        RequestProfile profile = new RequestProfile();
+        ContentCachingResponseWrapper wrapper = withHeader ? new ContentCachingResponseWrapper(response) : null;
+        HttpServletResponse target = wrapper != null ? wrapper : response;
+        RequestProfile.set(profile);
+        event.begin();
+        try {
+            chain.doFilter(request, target);
+        } finally {
+            RequestProfile.clear();
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = request.getMethod();
+                event.uri = request.getRequestURI();
+                event.status = target.getStatus();
+                profile.fill(event);
+                event.commit();
+            }
+        }
+
+        if (wrapper != null) {
+            wrapper.setHeader(PROFILE_HEADER, profile.summary());
+            wrapper.copyBodyToResponse();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.filemanager.filter;
+
+import com.filemanager.service.RootContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 根目录选择过滤器
+ * 从请求参数 root 或请求头 X-File-Root 读取根目录标识，供后续过滤器与服务使用
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RootSelectionFilter extends OncePerRequestFilter {
+
+    public static final String ROOT_HEADER = "X-File-Root";
+    public static final String ROOT_PARAMETER = "root";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String rootId = request.getParameter(ROOT_PARAMETER);
+        if (rootId == null || rootId.isEmpty()) {
+            rootId = request.getHeader(ROOT_HEADER);
+        }
+        RootContext.set(rootId == null || rootId.isEmpty() ? null : rootId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RootContext.clear();
+        }
+    }
+}
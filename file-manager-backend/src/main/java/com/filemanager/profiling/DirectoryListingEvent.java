@@ -0,0 +1,26 @@
+package com.filemanager.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * 单个目录的列举 (JFR 事件)
+ * 只统计列举目录项本身，不含子目录的递归；默认只记录超过 1 ms 的列举，可在 .jfc 中调整阈值
+ */
+@Name("com.filemanager.DirectoryListing")
+@Label("Directory Listing")
+@Category("File Manager")
+@Description("列举单个目录的目录项")
+@Threshold("1 ms")
+public class DirectoryListingEvent extends Event {
+
+    @Label("Directory")
+    public String directory;
+
+    @Label("Entries")
+    public int entries;
+}
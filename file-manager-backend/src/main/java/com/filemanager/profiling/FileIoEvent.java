@@ -0,0 +1,35 @@
+package com.filemanager.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 文件内容读写 (JFR 事件)
+ */
+@Name("com.filemanager.FileIo")
+@Label("File I/O")
+@Category("File Manager")
+@Description("文件内容的读取、写入与下载")
+public class FileIoEvent extends Event {
+
+    public static final String READ = "read";
+    public static final String WRITE = "write";
+    public static final String DOWNLOAD = "download";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Encoding")
+    public String encoding;
+}
@@ -0,0 +1,63 @@
+package com.filemanager.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * 单个 API 请求的汇总 (JFR 事件)
+ * 各耗时字段为请求内对应阶段的累计值，与事件总时长的差额为框架开销、排队与 GC 等
+ */
+@Name("com.filemanager.FileRequest")
+@Label("File Request")
+@Category("File Manager")
+@Description("单个文件 API 请求的 I/O 与耗时分解")
+public class FileRequestEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("URI")
+    public String uri;
+
+    @Label("Status")
+    public int status;
+
+    @Label("Entries Visited")
+    public long entriesVisited;
+
+    @Label("Directories Listed")
+    public long directoriesListed;
+
+    @Label("Bytes Read")
+    @DataAmount
+    public long bytesRead;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytesWritten;
+
+    @Label("Validation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long validationTime;
+
+    @Label("Listing Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long listingTime;
+
+    @Label("Sort Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long sortTime;
+
+    @Label("File I/O Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long ioTime;
+
+    @Label("Serialization Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long serializationTime;
+}
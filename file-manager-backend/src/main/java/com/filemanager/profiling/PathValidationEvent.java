@@ -0,0 +1,23 @@
+package com.filemanager.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 路径校验与解析 (JFR 事件)
+ */
+@Name("com.filemanager.PathValidation")
+@Label("Path Validation")
+@Category("File Manager")
+@Description("请求路径的校验与解析")
+public class PathValidationEvent extends Event {
+
+    @Label("Path")
+    public String path;
+
+    @Label("Valid")
+    public boolean valid;
+}
@@ -0,0 +1,149 @@
+package com.filemanager.profiling;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个请求的 I/O 与耗时统计
+ * 由 RequestProfileFilter 在需要时创建并绑定到请求线程，未绑定时所有记录方法均为空操作；
+ * 提交到根目录 I/O 线程池的任务通过 {@link #propagate(Callable)} 继承当前请求的统计对象。
+ */
+public final class RequestProfile {
+
+    private static final ThreadLocal<RequestProfile> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final LongAdder entriesVisited = new LongAdder();
+    private final LongAdder directoriesListed = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder validationNanos = new LongAdder();
+    private final LongAdder listingNanos = new LongAdder();
+    private final LongAdder sortNanos = new LongAdder();
+    private final LongAdder ioNanos = new LongAdder();
+    private final LongAdder serializationNanos = new LongAdder();
+
+    public static RequestProfile current() {
+        return CURRENT.get();
+    }
+
+    public static void set(RequestProfile profile) {
+        CURRENT.set(profile);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 包装任务，使其在执行线程上使用调用方的统计对象
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        RequestProfile profile = CURRENT.get();
+        if (profile == null) {
+            return task;
+        }
+        return () -> {
+            RequestProfile previous = CURRENT.get();
+            CURRENT.set(profile);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public static void addEntries(long count) {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null) {
+            profile.entriesVisited.add(count);
+        }
+    }
+
+    public static void addListing(long nanos) {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null) {
+            profile.directoriesListed.increment();
+            profile.listingNanos.add(nanos);
+        }
+    }
+
+    public static void addSort(long nanos) {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null) {
+            profile.sortNanos.add(nanos);
+        }
+    }
+
+    public static void addValidation(long nanos) {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null) {
+            profile.validationNanos.add(nanos);
+        }
+    }
+
+    public static void addRead(long bytes, long nanos) {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null) {
+            profile.bytesRead.add(bytes);
+            profile.ioNanos.add(nanos);
+        }
+    }
+
+    public static void addWrite(long bytes, long nanos) {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null) {
+            profile.bytesWritten.add(bytes);
+            profile.ioNanos.add(nanos);
+        }
+    }
+
+    public static void addSerialization(long nanos) {
+        RequestProfile profile = CURRENT.get();
+        if (profile != null) {
+            profile.serializationNanos.add(nanos);
+        }
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * 填充请求级 JFR 事件
+     */
+    public void fill(FileRequestEvent event) {
+        event.entriesVisited = entriesVisited.sum();
+        event.directoriesListed = directoriesListed.sum();
+        event.bytesRead = bytesRead.sum();
+        event.bytesWritten = bytesWritten.sum();
+        event.validationTime = validationNanos.sum();
+        event.listingTime = listingNanos.sum();
+        event.sortTime = sortNanos.sum();
+        event.ioTime = ioNanos.sum();
+        event.serializationTime = serializationNanos.sum();
+    }
+
+    /**
+     * 响应头中的摘要，时间单位为微秒，例如
+     * entries=120;dirs=8;read=0;written=0;validate=4;list=950;sort=40;io=0;serialize=310;total=1620
+     */
+    public String summary() {
+        return "entries=" + entriesVisited.sum()
+                + ";dirs=" + directoriesListed.sum()
+                + ";read=" + bytesRead.sum()
+                + ";written=" + bytesWritten.sum()
+                + ";validate=" + micros(validationNanos.sum())
+                + ";list=" + micros(listingNanos.sum())
+                + ";sort=" + micros(sortNanos.sum())
+                + ";io=" + micros(ioNanos.sum())
+                + ";serialize=" + micros(serializationNanos.sum())
+                + ";total=" + micros(elapsedNanos());
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
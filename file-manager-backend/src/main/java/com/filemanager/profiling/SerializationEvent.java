@@ -0,0 +1,20 @@
+package com.filemanager.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 响应体 JSON 序列化 (JFR 事件)
+ */
+@Name("com.filemanager.Serialization")
+@Label("Response Serialization")
+@Category("File Manager")
+@Description("Jackson 序列化并写出响应体")
+public class SerializationEvent extends Event {
+
+    @Label("Type")
+    public String type;
+}
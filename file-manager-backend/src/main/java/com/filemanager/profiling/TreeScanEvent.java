@@ -0,0 +1,30 @@
+package com.filemanager.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 目录树扫描 (JFR 事件)
+ * 事件持续时间即一次 /tree 请求在服务层的扫描耗时
+ */
+@Name("com.filemanager.TreeScan")
+@Label("Tree Scan")
+@Category("File Manager")
+@Description("目录树扫描，包含访问的条目数以及是否由快照响应")
+public class TreeScanEvent extends Event {
+
+    @Label("Root")
+    public String rootId;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Entries Visited")
+    public long entriesVisited;
+
+    @Label("From Snapshot")
+    public boolean fromSnapshot;
+}
@@ -0,0 +1,258 @@
+package com.filemanager.service;
+
+import com.filemanager.exception.FileOperationException;
+import com.filemanager.profiling.RequestProfile;
+import com.filemanager.util.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 文本文件编码检测
+ * 只读取文件开头的有限字节：先识别 BOM，再依次以 UTF-8、GBK、GB18030 严格解码，
+ * 都失败时使用 ISO-8859-1 (逐字节映射，保存时可原样写回)。
+ * 无 BOM 且前缀包含 NUL 字节的文件视为二进制文件，拒绝以文本方式读取或保存。
+ * 检测结果按 路径+大小+修改时间 缓存，缓存中只保存已对整个文件验证过的编码
+ * (前缀覆盖整个文件，或读取/保存时完整解码成功)。
+ */
+@Component
+public class CharsetDetector {
+
+    public static final Charset GBK = Charset.forName("GBK");
+    public static final Charset GB18030 = Charset.forName("GB18030");
+
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final byte[] UTF16LE_BOM = {(byte) 0xFF, (byte) 0xFE};
+    private static final byte[] UTF16BE_BOM = {(byte) 0xFE, (byte) 0xFF};
+    private static final byte[] NO_BOM = new byte[0];
+
+    // 无 BOM 时按顺序尝试的候选编码，GBK 优先于其超集 GB18030 以保证原样写回
+    private static final List<Charset> CANDIDATES = List.of(StandardCharsets.UTF_8, GBK, GB18030);
+
+    private final LruCache<String, TextEncoding> cache;
+    private final int prefixBytes;
+
+    public CharsetDetector(@Value("${file-manager.charset.prefix-bytes:65536}") int prefixBytes,
+                           @Value("${file-manager.charset.cache-entries:1024}") int cacheEntries) {
+        this.prefixBytes = Math.max(1024, prefixBytes);
+        this.cache = new LruCache<>(cacheEntries);
+    }
+
+    /**
+     * 检测文件编码
+     * 未命中缓存且文件大于前缀时，结果只代表前缀，调用方完整解码成功后应通过 remember 记录
+     * @param file 文件路径
+     * @return 编码与 BOM
+     */
+    public TextEncoding detect(Path file) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        String key = cacheKey(file, attrs);
+        TextEncoding cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        byte[] prefix = new byte[(int) Math.min(prefixBytes, attrs.size())];
+        int length;
+        long start = System.nanoTime();
+        try (InputStream in = Files.newInputStream(file)) {
+            length = in.readNBytes(prefix, 0, prefix.length);
+        }
+        RequestProfile.addRead(length, System.nanoTime() - start);
+        if (isBinary(prefix, length)) {
+            throw new FileOperationException("UNSUPPORTED_TYPE", "二进制文件不支持以文本方式读取或保存: " + file.getFileName());
+        }
+        boolean complete = length >= attrs.size();
+        TextEncoding encoding = detect(prefix, length, complete);
+        if (complete) {
+            cache.put(key, encoding);
+        }
+        return encoding;
+    }
+
+    /**
+     * 检测并对整个文件验证编码，用于保存前确定写回的编码
+     * 未命中缓存时先按前缀检测，再完整解码整个文件，失败则依次尝试后续候选编码；
+     * 避免前缀全为 ASCII 的 GBK 文件被误判为 UTF-8 后整体转码
+     * @param file 文件路径
+     * @return 能解码整个文件的编码与 BOM
+     */
+    public TextEncoding detectVerified(Path file) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        TextEncoding cached = cache.get(cacheKey(file, attrs));
+        if (cached != null) {
+            return cached;
+        }
+        TextEncoding encoding = detect(file);
+        if (attrs.size() <= prefixBytes) {
+            return encoding;
+        }
+        if (!decodesFully(file, attrs.size(), encoding)) {
+            TextEncoding detected = encoding;
+            for (Charset fallback : fallbacks(detected.charset())) {
+                encoding = detected.withCharset(fallback);
+                if (decodesFully(file, attrs.size(), encoding)) {
+                    break;
+                }
+            }
+        }
+        remember(file, encoding);
+        return encoding;
+    }
+
+    /**
+     * 以严格模式解码整个文件 (不保留解码结果)，ISO-8859-1 下出现 NUL 时视为二进制文件
+     */
+    private static boolean decodesFully(Path file, long size, TextEncoding encoding) throws IOException {
+        CharsetDecoder decoder = encoding.charset().newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        boolean rejectNul = StandardCharsets.ISO_8859_1.equals(encoding.charset());
+        long start = System.nanoTime();
+        try (InputStream in = Files.newInputStream(file);
+             Reader reader = new InputStreamReader(in, decoder)) {
+            in.skipNBytes(encoding.bom().length);
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                if (rejectNul && containsNul(buffer, read)) {
+                    throw new FileOperationException("UNSUPPORTED_TYPE",
+                            "二进制文件不支持以文本方式读取或保存: " + file.getFileName());
+                }
+            }
+            return true;
+        } catch (CharacterCodingException e) {
+            return false;
+        } finally {
+            RequestProfile.addRead(size, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 记录对整个文件验证过的编码 (完整解码成功，或前缀检测失败后改用的编码)
+     */
+    public void remember(Path file, TextEncoding encoding) throws IOException {
+        cache.put(cacheKey(file, Files.readAttributes(file, BasicFileAttributes.class)), encoding);
+    }
+
+    /**
+     * 根据前缀字节判断编码
+     * @param complete 前缀是否已包含整个文件 (否则允许末尾出现被截断的多字节字符)
+     */
+    static TextEncoding detect(byte[] prefix, int length, boolean complete) {
+        if (startsWith(prefix, length, UTF8_BOM)) {
+            return new TextEncoding(StandardCharsets.UTF_8, UTF8_BOM);
+        }
+        if (startsWith(prefix, length, UTF16LE_BOM)) {
+            return new TextEncoding(StandardCharsets.UTF_16LE, UTF16LE_BOM);
+        }
+        if (startsWith(prefix, length, UTF16BE_BOM)) {
+            return new TextEncoding(StandardCharsets.UTF_16BE, UTF16BE_BOM);
+        }
+        for (Charset charset : CANDIDATES) {
+            if (decodes(charset, prefix, length, complete)) {
+                return new TextEncoding(charset, NO_BOM);
+            }
+        }
+        return new TextEncoding(StandardCharsets.ISO_8859_1, NO_BOM);
+    }
+
+    /**
+     * 无 UTF-16 BOM 且包含 NUL 字节时判定为二进制文件 (UTF-8、GBK 等文本不会出现 NUL)
+     */
+    static boolean isBinary(byte[] prefix, int length) {
+        if (startsWith(prefix, length, UTF16LE_BOM) || startsWith(prefix, length, UTF16BE_BOM)) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (prefix[i] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 前缀检测的编码无法解码完整文件时，依次尝试的后续编码
+     */
+    public static List<Charset> fallbacks(Charset failed) {
+        int index = CANDIDATES.indexOf(failed);
+        List<Charset> rest = index >= 0 ? CANDIDATES.subList(index + 1, CANDIDATES.size()) : List.of();
+        return Stream.concat(rest.stream(), Stream.of(StandardCharsets.ISO_8859_1)).toList();
+    }
+
+    private static boolean decodes(Charset charset, byte[] prefix, int length, boolean complete) {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        ByteBuffer in = ByteBuffer.wrap(prefix, 0, length);
+        CharBuffer out = CharBuffer.allocate(4096);
+        while (true) {
+            CoderResult result = decoder.decode(in, out, complete);
+            if (result.isError()) {
+                return false;
+            }
+            if (result.isOverflow()) {
+                out.clear();
+                continue;
+            }
+            // 未读完整个文件时，末尾剩余的字节可能是被截断的多字节字符，视为可解码
+            return true;
+        }
+    }
+
+    private static boolean containsNul(char[] buffer, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] == '\0') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(byte[] bytes, int length, byte[] bom) {
+        if (length < bom.length) {
+            return false;
+        }
+        for (int i = 0; i < bom.length; i++) {
+            if (bytes[i] != bom[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String cacheKey(Path file, BasicFileAttributes attrs) {
+        return file.toAbsolutePath() + "|" + attrs.size() + "|" + attrs.lastModifiedTime().toMillis();
+    }
+
+    /**
+     * 文件编码：字符集与文件开头的 BOM (无 BOM 时为空数组)
+     */
+    public record TextEncoding(Charset charset, byte[] bom) {
+
+        /**
+         * 改用其他字符集；原 BOM 只属于原字符集，字符集变化时一并去掉
+         */
+        public TextEncoding withCharset(Charset other) {
+            return other.equals(charset) ? this : new TextEncoding(other, NO_BOM);
+        }
+    }
+}
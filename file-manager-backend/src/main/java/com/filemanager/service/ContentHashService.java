@@ -0,0 +1,39 @@
+package com.filemanager.service;
+
+import com.filemanager.dto.DuplicateGroupDTO;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文件内容哈希服务接口
+ * 在后台计算文件哈希，用于重复文件检测和下载 ETag
+ */
+public interface ContentHashService {
+
+    /**
+     * 在后台扫描当前根目录并更新哈希索引
+     * @return 是否启动了新的扫描 (已有扫描进行中时返回 false)
+     */
+    boolean startScan();
+
+    /**
+     * 获取当前根目录的扫描状态
+     * @return 状态信息
+     */
+    Map<String, Object> getScanStatus();
+
+    /**
+     * 获取当前根目录的重复文件报告
+     * @return 按可回收空间降序排列的重复文件组
+     */
+    List<DuplicateGroupDTO> findDuplicates();
+
+    /**
+     * 获取文件的内容哈希 (SHA-256)，用于下载 ETag
+     * 只读取哈希索引，不在调用线程中读取文件内容；未索引时安排后台计算
+     * @param path 文件路径
+     * @return 十六进制哈希，尚未索引时返回 null
+     */
+    String getETag(String path);
+}
@@ -0,0 +1,534 @@
+package com.filemanager.service;
+
+import com.filemanager.dto.DuplicateGroupDTO;
+import com.filemanager.exception.FileOperationException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * 文件内容哈希服务实现类
+ * 以有界并行度遍历根目录，通过直接缓冲区读取文件：
+ * 先计算快速的非加密哈希 (CRC32C)，仅当大小与快速哈希均相同时才计算 SHA-256。
+ * 哈希按 大小+修改时间 持久化在应用数据目录中，重复扫描只处理发生变化的文件。
+ * 扫描任务分批提交，哈希线程池的队列中最多只有一批任务。
+ * 后台扫描的目录遍历与每个哈希任务都占用所属根目录的一个并发许可。
+ * ETag 只查询索引，未索引的文件交给后台线程一次读取同时计算两种哈希，请求线程不读取文件内容。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContentHashServiceImpl implements ContentHashService {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int INDEX_MAGIC = 0x464D4858; // "FMHX"
+    // 扫描时每批提交的哈希任务数，批内任务全部完成后再提交下一批，队列中不会堆积整棵目录树的任务
+    private static final int SCAN_BATCH_SIZE = 256;
+
+    private final RootRegistry rootRegistry;
+
+    @Value("${file-manager.hash.threads:2}")
+    private int threads;
+
+    @Value("${file-manager.hash.dir:${file-manager.data-dir:${user.home}/.file-manager}/hashes}")
+    private String indexDir;
+
+    @Value("${file-manager.hash.etag-max-bytes:67108864}")
+    private long etagMaxBytes;
+
+    private ExecutorService hashExecutor;
+    private ExecutorService scanExecutor;
+
+    // 哈希线程各复用一个直接缓冲区，避免读取时的堆内复制；只在固定大小的哈希线程池中使用
+    private final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+    // 根目录标识 -> 哈希索引
+    private final Map<String, HashIndex> indexes = new ConcurrentHashMap<>();
+
+    // 已安排后台计算 ETag 的文件 (根目录标识|相对路径)，避免重复提交
+    private final Set<String> pendingETags = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        hashExecutor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "content-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scanExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "content-hash-scan");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scanExecutor.shutdownNow();
+        hashExecutor.shutdownNow();
+        indexes.forEach((rootId, index) -> {
+            if (index.dirty) {
+                saveIndex(rootId, index);
+            }
+        });
+    }
+
+    @Override
+    public boolean startScan() {
+        ManagedRoot root = rootRegistry.current();
+        HashIndex index = index(root.getId());
+        if (!index.scanning.compareAndSet(false, true)) {
+            return false;
+        }
+        scanExecutor.execute(() -> {
+            try {
+                scan(root, index);
+            } catch (RuntimeException e) {
+                log.error("根目录 [{}] 哈希扫描失败", root.getId(), e);
+                index.lastError = e.getMessage();
+            } finally {
+                index.scanning.set(false);
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> getScanStatus() {
+        HashIndex index = index(rootRegistry.current().getId());
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("scanning", index.scanning.get());
+        status.put("indexedFiles", index.entries.size());
+        status.put("hashedBytes", index.hashedBytes.get());
+        status.put("lastScanMillis", index.lastScanMillis);
+        status.put("lastError", index.lastError);
+        return status;
+    }
+
+    @Override
+    public List<DuplicateGroupDTO> findDuplicates() {
+        HashIndex index = index(rootRegistry.current().getId());
+        Map<String, List<String>> groups = new HashMap<>();
+        Map<String, Long> sizes = new HashMap<>();
+        index.entries.forEach((path, entry) -> {
+            if (entry.strong() != null && entry.size() > 0) {
+                String key = entry.size() + ":" + entry.strong();
+                groups.computeIfAbsent(key, k -> new ArrayList<>()).add(path);
+                sizes.put(key, entry.size());
+            }
+        });
+
+        List<DuplicateGroupDTO> duplicates = new ArrayList<>();
+        groups.forEach((key, paths) -> {
+            if (paths.size() < 2) {
+                return;
+            }
+            paths.sort(String::compareTo);
+            long size = sizes.get(key);
+            duplicates.add(DuplicateGroupDTO.builder()
+                    .hash(key.substring(key.indexOf(':') + 1))
+                    .size(size)
+                    .wastedBytes(size * (paths.size() - 1))
+                    .paths(paths)
+                    .build());
+        });
+        duplicates.sort(Comparator.comparingLong(DuplicateGroupDTO::getWastedBytes).reversed());
+        return duplicates;
+    }
+
+    @Override
+    public String getETag(String path) {
+        ManagedRoot root = rootRegistry.current();
+        Path file = root.resolve(path);
+        BasicFileAttributes attrs;
+        try {
+            // 只在根目录的元数据线程中读取属性，不读取内容
+            attrs = root.metadata(() -> Files.readAttributes(file, BasicFileAttributes.class));
+        } catch (FileOperationException e) {
+            log.debug("读取文件属性失败: {}", path, e);
+            return null;
+        }
+        if (!attrs.isRegularFile()) {
+            return null;
+        }
+        HashIndex index = index(root.getId());
+        String key = relativeKey(root.getNormalizedRoot(), file);
+        HashEntry entry = index.entries.get(key);
+        long mtime = attrs.lastModifiedTime().toMillis();
+        if (entry != null && entry.matches(attrs.size(), mtime) && entry.strong() != null) {
+            return entry.strong();
+        }
+        // 未索引或已变化：不超过上限的文件交给后台计算，本次响应不带 ETag
+        if (attrs.size() <= etagMaxBytes) {
+            scheduleETag(root, index, key, file, attrs.size(), mtime);
+        }
+        return null;
+    }
+
+    /**
+     * 在哈希线程池中计算单个文件的哈希并写入索引，同一文件只提交一次
+     */
+    private void scheduleETag(ManagedRoot root, HashIndex index, String key, Path file, long size, long mtime) {
+        String pendingKey = root.getId() + "|" + key;
+        if (!pendingETags.add(pendingKey)) {
+            return;
+        }
+        try {
+            hashExecutor.execute(() -> {
+                try {
+                    withPermit(root, () -> {
+                        try {
+                            Hashes hashes = hashBoth(file);
+                            index.entries.put(key, new HashEntry(size, mtime, hashes.fast(), hashes.strong()));
+                            index.hashedBytes.addAndGet(size);
+                            index.dirty = true;
+                        } catch (IOException e) {
+                            log.debug("计算 ETag 失败: {}", file, e);
+                        }
+                        return null;
+                    });
+                } finally {
+                    pendingETags.remove(pendingKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingETags.remove(pendingKey);
+        }
+    }
+
+    /**
+     * 扫描根目录：复用未变化文件的哈希，并行计算新文件的快速哈希，
+     * 再对大小与快速哈希均相同的候选组计算强哈希
+     */
+    private void scan(ManagedRoot root, HashIndex index) {
+        long start = System.currentTimeMillis();
+        Path rootPath = root.getNormalizedRoot();
+        Map<String, BasicFileAttributes> files = withPermit(root, () -> listFiles(rootPath));
+
+        // 删除已不存在的文件
+        index.entries.keySet().retainAll(files.keySet());
+
+        List<Future<?>> pending = new ArrayList<>();
+        files.forEach((key, attrs) -> {
+            long mtime = attrs.lastModifiedTime().toMillis();
+            HashEntry entry = index.entries.get(key);
+            if (entry != null && entry.matches(attrs.size(), mtime)) {
+                return;
+            }
+            submitBatched(pending, () -> withPermit(root, () -> {
+                Path file = rootPath.resolve(key);
+                try {
+                    index.entries.put(key, new HashEntry(attrs.size(), mtime, fastHash(file), null));
+                    index.hashedBytes.addAndGet(attrs.size());
+                } catch (IOException e) {
+                    log.debug("计算快速哈希失败: {}", file, e);
+                }
+                return null;
+            }));
+        });
+        awaitAll(pending);
+
+        // 大小与快速哈希相同的文件才需要强哈希确认
+        Map<String, List<String>> candidates = new HashMap<>();
+        index.entries.forEach((key, entry) -> {
+            if (entry.size() > 0) {
+                candidates.computeIfAbsent(entry.size() + ":" + entry.fast(), k -> new ArrayList<>()).add(key);
+            }
+        });
+        pending.clear();
+        candidates.values().stream()
+                .filter(group -> group.size() > 1)
+                .flatMap(List::stream)
+                .forEach(key -> {
+                    HashEntry entry = index.entries.get(key);
+                    if (entry == null || entry.strong() != null) {
+                        return;
+                    }
+                    submitBatched(pending, () -> withPermit(root, () -> {
+                        Path file = rootPath.resolve(key);
+                        try {
+                            index.entries.put(key, new HashEntry(entry.size(), entry.mtime(), entry.fast(),
+                                    strongHash(file)));
+                            index.hashedBytes.addAndGet(entry.size());
+                        } catch (IOException e) {
+                            log.debug("计算强哈希失败: {}", file, e);
+                        }
+                        return null;
+                    }));
+                });
+        awaitAll(pending);
+
+        index.lastScanMillis = System.currentTimeMillis() - start;
+        index.lastError = null;
+        saveIndex(root.getId(), index);
+        log.info("根目录 [{}] 哈希扫描完成: {} 个文件，耗时 {} ms", root.getId(), files.size(), index.lastScanMillis);
+    }
+
+    /**
+     * 持有根目录的一个并发许可执行后台任务，与前台请求共享该根目录的并发上限
+     */
+    private <T> T withPermit(ManagedRoot root, Supplier<T> task) {
+        Runnable release;
+        try {
+            release = root.awaitPermit();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileOperationException("HASH_ERROR", "哈希扫描被中断");
+        }
+        try {
+            return task.get();
+        } finally {
+            release.run();
+        }
+    }
+
+    private Map<String, BasicFileAttributes> listFiles(Path rootPath) {
+        Map<String, BasicFileAttributes> files = new HashMap<>();
+        try {
+            Files.walkFileTree(rootPath, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        files.put(relativeKey(rootPath, file), attrs);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    log.debug("无法访问文件: {}", file, e);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new FileOperationException("FILE_READ_ERROR", "遍历目录失败: " + e.getMessage());
+        }
+        return files;
+    }
+
+    /**
+     * 提交一个扫描任务，当前批次达到 SCAN_BATCH_SIZE 时等待整批完成后清空
+     */
+    private void submitBatched(List<Future<?>> pending, Callable<?> task) {
+        pending.add(hashExecutor.submit(task));
+        if (pending.size() >= SCAN_BATCH_SIZE) {
+            awaitAll(pending);
+            pending.clear();
+        }
+    }
+
+    private void awaitAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FileOperationException("HASH_ERROR", "哈希扫描被中断");
+            } catch (java.util.concurrent.ExecutionException e) {
+                log.debug("哈希任务失败", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * 快速哈希：整个文件的 CRC32C (JDK 内建硬件加速)
+     */
+    private long fastHash(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = buffers.get();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * 一次读取同时计算快速哈希与强哈希
+     */
+    private Hashes hashBoth(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = buffers.get();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.rewind();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return new Hashes(crc.getValue(), HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * 强哈希：SHA-256，十六进制表示
+     */
+    private String strongHash(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = buffers.get();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String relativeKey(Path rootPath, Path file) {
+        return rootPath.relativize(file).toString().replace('\\', '/');
+    }
+
+    private HashIndex index(String rootId) {
+        return indexes.computeIfAbsent(rootId, this::loadIndex);
+    }
+
+    private Path indexFile(String rootId) {
+        return Paths.get(indexDir, "file-manager-hashes-" + rootId + ".idx");
+    }
+
+    /**
+     * 加载持久化的哈希索引，文件不存在或损坏时返回空索引
+     */
+    private HashIndex loadIndex(String rootId) {
+        HashIndex index = new HashIndex();
+        Path file = indexFile(rootId);
+        if (!Files.isRegularFile(file)) {
+            return index;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != INDEX_MAGIC) {
+                return index;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                long size = in.readLong();
+                long mtime = in.readLong();
+                long fast = in.readLong();
+                String strong = in.readBoolean() ? in.readUTF() : null;
+                index.entries.put(path, new HashEntry(size, mtime, fast, strong));
+            }
+            log.info("已加载根目录 [{}] 的哈希索引: {} 个文件", rootId, count);
+        } catch (IOException e) {
+            log.warn("加载哈希索引失败: {}", file, e);
+            index.entries.clear();
+        }
+        return index;
+    }
+
+    private void saveIndex(String rootId, HashIndex index) {
+        Path file = indexFile(rootId);
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "hashes", ".tmp");
+            try {
+                Map<String, HashEntry> entries = new HashMap<>(index.entries);
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    out.writeInt(INDEX_MAGIC);
+                    out.writeInt(entries.size());
+                    for (Map.Entry<String, HashEntry> e : entries.entrySet()) {
+                        HashEntry entry = e.getValue();
+                        out.writeUTF(e.getKey());
+                        out.writeLong(entry.size());
+                        out.writeLong(entry.mtime());
+                        out.writeLong(entry.fast());
+                        out.writeBoolean(entry.strong() != null);
+                        if (entry.strong() != null) {
+                            out.writeUTF(entry.strong());
+                        }
+                    }
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                index.dirty = false;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            log.warn("保存哈希索引失败: {}", file, e);
+        }
+    }
+
+    /**
+     * 单个文件的哈希记录，大小或修改时间变化后失效
+     */
+    private record HashEntry(long size, long mtime, long fast, String strong) {
+        boolean matches(long size, long mtime) {
+            return this.size == size && this.mtime == mtime;
+        }
+    }
+
+    private record Hashes(long fast, String strong) {
+    }
+
+    /**
+     * 单个根目录的哈希索引与扫描状态
+     */
+    private static class HashIndex {
+        private final Map<String, HashEntry> entries = new ConcurrentHashMap<>();
+        private final AtomicBoolean scanning = new AtomicBoolean();
+        private final AtomicLong hashedBytes = new AtomicLong();
+        private volatile long lastScanMillis;
+        private volatile String lastError;
+        private volatile boolean dirty;
+    }
+}
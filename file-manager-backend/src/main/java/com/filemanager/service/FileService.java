@@ -58,14 +58,56 @@ public interface FileService {
     java.nio.file.Path getFilePath(String path);
     
     /**
-     * 获取当前根目录路径
+     * 在当前根目录的 I/O 线程池中对文件执行操作，受该根目录的并发上限与超时约束
+     * @param path 相对路径
+     * @param operation 对解析后的完整路径执行的操作
+     * @return 操作结果
+     */
+    <T> T executeOnRoot(String path, PathOperation<T> operation);
+    
+    /**
+     * 在当前根目录的元数据线程中读取文件属性等轻量信息，不等待 I/O 许可
+     * @param path 相对路径
+     * @param operation 对解析后的完整路径执行的操作，不应读取文件内容
+     * @return 操作结果
+     */
+    <T> T statOnRoot(String path, PathOperation<T> operation);
+    
+    /**
+     * 占用当前根目录的一个传输许可，用于必须在请求线程上完成的长时间传输 (如下载)
+     * @return 释放许可的操作
+     */
+    Runnable acquireTransferPermit();
+    
+    /**
+     * 获取当前请求所选根目录的路径
      * @return 根目录路径
      */
     String getRootPath();
     
     /**
-     * 设置根目录路径
+     * 当前请求所选根目录的路径是否允许在运行时修改
+     * @return 仅未配置 roots 且开启 allow-root-path-change 时返回 true
+     */
+    boolean isRootPathMutable();
+    
+    /**
+     * 设置当前请求所选根目录的路径
      * @param rootPath 新的根目录路径
      */
     void setRootPath(String rootPath);
+    
+    /**
+     * 获取所有受管理的根目录
+     * @return 根目录标识到路径的映射，第一个为默认根目录
+     */
+    java.util.Map<String, String> getRoots();
+    
+    /**
+     * 对根目录内文件执行的操作
+     */
+    @FunctionalInterface
+    interface PathOperation<T> {
+        T apply(java.nio.file.Path file) throws java.io.IOException;
+    }
 }
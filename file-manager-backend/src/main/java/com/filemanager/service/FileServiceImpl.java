@@ -3,49 +3,179 @@ package com.filemanager.service;
 import com.filemanager.dto.FileContentDTO;
 import com.filemanager.dto.FileNodeDTO;
 import com.filemanager.exception.FileOperationException;
+import com.filemanager.profiling.DirectoryListingEvent;
+import com.filemanager.profiling.FileIoEvent;
+import com.filemanager.profiling.PathValidationEvent;
+import com.filemanager.profiling.RequestProfile;
+import com.filemanager.profiling.TreeScanEvent;
 import com.filemanager.util.FileTypeUtil;
 import com.filemanager.util.PathValidator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Stream;
 
 /**
  * 文件服务实现类
+ * 所有操作作用于当前请求选择的根目录 (见 {@link RootContext})，
+ * 磁盘 I/O 在该根目录专用的线程池中执行
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class FileServiceImpl implements FileService {
     
-    @Value("${file-manager.root-path:./managed-files}")
-    private String rootPath;
+    private final FileTreeSnapshot treeSnapshot;
+    private final RootRegistry rootRegistry;
+    private final CharsetDetector charsetDetector;
+    
+    @Value("${file-manager.snapshot.write-interval-ms:300000}")
+    private long snapshotWriteIntervalMs;
+    
+    // 快照写入与后台校对线程
+    private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tree-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @PostConstruct
+    void init() {
+        for (ManagedRoot root : rootRegistry.all()) {
+            treeSnapshot.load(root.getId(), root.getNormalizedRoot());
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        snapshotExecutor.shutdownNow();
+    }
+    
+    /**
+     * 启动完成后在后台依次遍历各根目录，与快照校对并写入新快照
+     * 校对完成前目录树请求由快照直接响应
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileSnapshot() {
+        if (!treeSnapshot.isEnabled()) {
+            return;
+        }
+        for (ManagedRoot managedRoot : rootRegistry.all()) {
+            snapshotExecutor.execute(() -> reconcileSnapshot(managedRoot));
+        }
+    }
+    
+    private void reconcileSnapshot(ManagedRoot managedRoot) {
+        Path root = managedRoot.getNormalizedRoot();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            FileNodeDTO tree = buildFileNode(root, "/");
+            treeSnapshot.write(managedRoot.getId(), root, tree);
+            managedRoot.setLastSnapshotWrite(System.currentTimeMillis());
+            log.info("根目录 [{}] 快照校对完成，耗时 {} ms", managedRoot.getId(),
+                    managedRoot.getLastSnapshotWrite() - start);
+        } catch (FileOperationException e) {
+            log.warn("根目录 [{}] 快照校对失败: {}", managedRoot.getId(), e.getMessage());
+        } finally {
+            if (root.equals(managedRoot.getNormalizedRoot())) {
+                treeSnapshot.invalidate(managedRoot.getId());
+            }
+        }
+    }
     
     @Override
     public FileNodeDTO getDirectoryTree(String path) {
-        Path resolvedPath = resolvePath(path);
-        PathValidator.validatePath(path, rootPath);
+        ManagedRoot root = rootRegistry.current();
+        Path resolvedPath = resolve(root, path);
+        if (!rootRegistry.isCoalescingEnabled()) {
+            return root.execute(() -> loadDirectoryTree(root, resolvedPath, path));
+        }
+        // 节点路径基于请求路径生成，因此键同时包含解析后的路径与请求路径
+        return root.getTreeFlight().execute(resolvedPath + "|" + path,
+                () -> root.execute(() -> loadDirectoryTree(root, resolvedPath, path)));
+    }
+    
+    private FileNodeDTO loadDirectoryTree(ManagedRoot root, Path resolvedPath, String path) {
+        TreeScanEvent event = new TreeScanEvent();
+        event.begin();
+        // 启动后校对完成前，优先使用快照
+        FileNodeDTO snapshot = treeSnapshot.lookup(root.getId(), root.getNormalizedRoot(), path);
+        if (snapshot != null) {
+            commitTreeScan(event, root, path, snapshot, true);
+            return snapshot;
+        }
         
         if (!Files.exists(resolvedPath)) {
             throw new FileOperationException("DIRECTORY_NOT_FOUND", "目录不存在: " + path);
         }
         
-        return buildFileNode(resolvedPath, path);
+        FileNodeDTO tree = buildFileNode(resolvedPath, path);
+        commitTreeScan(event, root, path, tree, false);
+        if (resolvedPath.equals(root.getNormalizedRoot())) {
+            scheduleSnapshotWrite(root, resolvedPath, tree);
+        }
+        return tree;
+    }
+    
+    private void commitTreeScan(TreeScanEvent event, ManagedRoot root, String path, FileNodeDTO tree,
+                                boolean fromSnapshot) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.rootId = root.getId();
+            event.path = path;
+            event.entriesVisited = countNodes(tree);
+            event.fromSnapshot = fromSnapshot;
+            event.commit();
+        }
     }
     
     @Override
     public FileContentDTO readFileContent(String path) {
-        Path resolvedPath = resolvePath(path);
-        PathValidator.validatePath(path, rootPath);
-        
+        ManagedRoot root = rootRegistry.current();
+        Path resolvedPath = resolve(root, path);
+        if (!rootRegistry.isCoalescingEnabled()) {
+            return root.execute(() -> loadFileContent(resolvedPath, path));
+        }
+        return root.getContentFlight().execute(resolvedPath + "|" + path,
+                () -> root.execute(() -> loadFileContent(resolvedPath, path)));
+    }
+    
+    private FileContentDTO loadFileContent(Path resolvedPath, String path) {
         if (!Files.exists(resolvedPath)) {
             throw new FileOperationException("FILE_NOT_FOUND", "文件不存在: " + path);
         }
@@ -54,14 +184,37 @@ public class FileServiceImpl implements FileService {
             throw new FileOperationException("INVALID_PATH", "路径是目录而非文件: " + path);
         }
 
+        FileIoEvent event = new FileIoEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
-            String content = Files.readString(resolvedPath, StandardCharsets.UTF_8);
+            CharsetDetector.TextEncoding encoding = charsetDetector.detect(resolvedPath);
+            long size = Files.size(resolvedPath);
+            String content;
+            try {
+                content = decode(resolvedPath, size, encoding, path);
+            } catch (CharacterCodingException e) {
+                // 前缀之后出现无法解码的字节，依次尝试后续候选编码
+                content = null;
+                for (Charset fallback : CharsetDetector.fallbacks(encoding.charset())) {
+                    try {
+                        content = decode(resolvedPath, size, encoding.withCharset(fallback), path);
+                        encoding = encoding.withCharset(fallback);
+                        break;
+                    } catch (CharacterCodingException ignored) {
+                        // 继续尝试下一个编码
+                    }
+                }
+            }
+            // 整个文件已按该编码解码成功，之后的读取与保存直接使用
+            charsetDetector.remember(resolvedPath, encoding);
+            recordIo(event, FileIoEvent.READ, path, resolvedPath, size, encoding.charset().name(), start);
             String extension = getExtension(path);
             
             return FileContentDTO.builder()
                     .path(path)
                     .content(content)
-                    .encoding("UTF-8")
+                    .encoding(encoding.charset().name())
                     .mimeType(FileTypeUtil.getMimeType(extension))
                     .build();
         } catch (IOException e) {
@@ -72,81 +225,130 @@ public class FileServiceImpl implements FileService {
     
     @Override
     public void saveFileContent(String path, String content) {
-        Path resolvedPath = resolvePath(path);
-        PathValidator.validatePath(path, rootPath);
-        
-        if (!Files.exists(resolvedPath)) {
-            throw new FileOperationException("FILE_NOT_FOUND", "文件不存在: " + path);
-        }
-        
-        try {
-            Files.writeString(resolvedPath, content, StandardCharsets.UTF_8);
-            log.info("文件保存成功: {}", path);
-        } catch (IOException e) {
-            log.error("保存文件失败: {}", path, e);
-            throw new FileOperationException("FILE_WRITE_ERROR", "保存文件失败: " + e.getMessage());
-        }
+        ManagedRoot root = rootRegistry.current();
+        Path resolvedPath = resolve(root, path);
+        root.run(() -> {
+            if (!Files.exists(resolvedPath)) {
+                throw new FileOperationException("FILE_NOT_FOUND", "文件不存在: " + path);
+            }
+            
+            treeSnapshot.invalidate(root.getId());
+            FileIoEvent event = new FileIoEvent();
+            event.begin();
+            long start = System.nanoTime();
+            try {
+                // 沿用文件原有的编码与 BOM；未缓存时对整个文件验证编码，不只依据前缀
+                CharsetDetector.TextEncoding encoding = charsetDetector.detectVerified(resolvedPath);
+                encode(resolvedPath, content != null ? content : "", encoding, path);
+                recordIo(event, FileIoEvent.WRITE, path, resolvedPath, -1, encoding.charset().name(), start);
+                log.info("文件保存成功: {}", path);
+            } catch (IOException e) {
+                log.error("保存文件失败: {}", path, e);
+                throw new FileOperationException("FILE_WRITE_ERROR", "保存文件失败: " + e.getMessage());
+            } finally {
+                root.invalidate();
+            }
+        });
     }
     
     @Override
     public void createDirectory(String path) {
-        Path resolvedPath = resolvePath(path);
-        PathValidator.validatePath(path, rootPath);
+        ManagedRoot root = rootRegistry.current();
+        Path resolvedPath = resolve(root, path);
         PathValidator.validateName(resolvedPath.getFileName().toString());
-        
-        if (Files.exists(resolvedPath)) {
-            throw new FileOperationException("FILE_EXISTS", "目录已存在: " + path);
-        }
-        
-        try {
-            Files.createDirectories(resolvedPath);
-            log.info("目录创建成功: {}", path);
-        } catch (IOException e) {
-            log.error("创建目录失败: {}", path, e);
-            throw new FileOperationException("DIRECTORY_CREATE_ERROR", "创建目录失败: " + e.getMessage());
-        }
+        root.run(() -> {
+            if (Files.exists(resolvedPath)) {
+                throw new FileOperationException("FILE_EXISTS", "目录已存在: " + path);
+            }
+            
+            treeSnapshot.invalidate(root.getId());
+            try {
+                Files.createDirectories(resolvedPath);
+                log.info("目录创建成功: {}", path);
+            } catch (IOException e) {
+                log.error("创建目录失败: {}", path, e);
+                throw new FileOperationException("DIRECTORY_CREATE_ERROR", "创建目录失败: " + e.getMessage());
+            } finally {
+                root.invalidate();
+            }
+        });
     }
     
     @Override
     public void createFile(String path, String content) {
-        Path resolvedPath = resolvePath(path);
-        PathValidator.validatePath(path, rootPath);
+        ManagedRoot root = rootRegistry.current();
+        Path resolvedPath = resolve(root, path);
         PathValidator.validateName(resolvedPath.getFileName().toString());
-        
-        try {
-            Path parent = resolvedPath.getParent();
-            if (parent != null && !Files.exists(parent)) {
-                Files.createDirectories(parent);
+        root.run(() -> {
+            treeSnapshot.invalidate(root.getId());
+            FileIoEvent event = new FileIoEvent();
+            event.begin();
+            long start = System.nanoTime();
+            try {
+                Path parent = resolvedPath.getParent();
+                if (parent != null && !Files.exists(parent)) {
+                    Files.createDirectories(parent);
+                }
+                Files.writeString(resolvedPath, content != null ? content : "", StandardCharsets.UTF_8);
+                recordIo(event, FileIoEvent.WRITE, path, resolvedPath, -1, StandardCharsets.UTF_8.name(), start);
+                log.info("文件创建成功: {}", path);
+            } catch (IOException e) {
+                log.error("创建文件失败: {}", path, e);
+                throw new FileOperationException("FILE_CREATE_ERROR", "创建文件失败: " + e.getMessage());
+            } finally {
+                root.invalidate();
             }
-            Files.writeString(resolvedPath, content != null ? content : "", StandardCharsets.UTF_8);
-            log.info("文件创建成功: {}", path);
-        } catch (IOException e) {
-            log.error("创建文件失败: {}", path, e);
-            throw new FileOperationException("FILE_CREATE_ERROR", "创建文件失败: " + e.getMessage());
-        }
+        });
     }
     
     @Override
     public boolean exists(String path) {
-        Path resolvedPath = resolvePath(path);
-        PathValidator.validatePath(path, rootPath);
-        return Files.exists(resolvedPath);
+        ManagedRoot root = rootRegistry.current();
+        Path resolvedPath = resolve(root, path);
+        return root.metadata(() -> Files.exists(resolvedPath));
     }
     
     @Override
     public Path getFilePath(String path) {
-        Path resolvedPath = resolvePath(path);
-        PathValidator.validatePath(path, rootPath);
-        return resolvedPath;
+        return resolve(rootRegistry.current(), path);
+    }
+    
+    @Override
+    public <T> T executeOnRoot(String path, PathOperation<T> operation) {
+        ManagedRoot root = rootRegistry.current();
+        Path resolvedPath = resolve(root, path);
+        return root.call(() -> operation.apply(resolvedPath));
+    }
+    
+    @Override
+    public <T> T statOnRoot(String path, PathOperation<T> operation) {
+        ManagedRoot root = rootRegistry.current();
+        Path resolvedPath = resolve(root, path);
+        return root.metadata(() -> operation.apply(resolvedPath));
+    }
+    
+    @Override
+    public Runnable acquireTransferPermit() {
+        return rootRegistry.current().acquireTransferPermit();
     }
     
     @Override
     public String getRootPath() {
-        return rootPath;
+        return rootRegistry.current().getPath();
+    }
+    
+    @Override
+    public boolean isRootPathMutable() {
+        return rootRegistry.current().isMutable();
     }
     
     @Override
     public void setRootPath(String newRootPath) {
+        ManagedRoot root = rootRegistry.current();
+        if (!root.isMutable()) {
+            // 共享根目录由配置文件管理，任何客户端都不能为所有用户改变其路径
+            throw new FileOperationException("PERMISSION_DENIED", "根目录由配置文件管理，不允许在运行时修改: " + root.getId());
+        }
         Path path = Paths.get(newRootPath);
         if (!Files.exists(path)) {
             throw new FileOperationException("INVALID_PATH", "目录不存在: " + newRootPath);
@@ -154,39 +356,211 @@ public class FileServiceImpl implements FileService {
         if (!Files.isDirectory(path)) {
             throw new FileOperationException("INVALID_PATH", "路径不是目录: " + newRootPath);
         }
-        this.rootPath = newRootPath;
-        log.info("根目录已更新为: {}", newRootPath);
+        root.setPath(newRootPath);
+        treeSnapshot.invalidate(root.getId());
+        log.info("根目录 [{}] 已更新为: {}", root.getId(), newRootPath);
+    }
+    
+    @Override
+    public Map<String, String> getRoots() {
+        Map<String, String> roots = new LinkedHashMap<>();
+        for (ManagedRoot root : rootRegistry.all()) {
+            roots.put(root.getId(), root.getPath());
+        }
+        return roots;
     }
 
+    /**
+     * 校验并解析路径，耗时计入当前请求的剖析统计
+     */
+    private Path resolve(ManagedRoot root, String path) {
+        PathValidationEvent event = new PathValidationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            Path resolved = root.resolve(path);
+            event.valid = true;
+            return resolved;
+        } finally {
+            RequestProfile.addValidation(System.nanoTime() - start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = path;
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * 记录一次文件内容读写：计入当前请求的剖析统计并提交 JFR 事件
+     * 未开启剖析时直接返回，不读取文件大小
+     * @param knownBytes 已知的文件大小，未知时传 -1 (仅在需要记录时读取)
+     */
+    private void recordIo(FileIoEvent event, String operation, String path, Path file, long knownBytes,
+                          String encoding, long start) throws IOException {
+        if (!event.isEnabled() && RequestProfile.current() == null) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = knownBytes >= 0 ? knownBytes : Files.size(file);
+        if (FileIoEvent.READ.equals(operation)) {
+            RequestProfile.addRead(bytes, nanos);
+        } else {
+            RequestProfile.addWrite(bytes, nanos);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.path = path;
+            event.bytes = bytes;
+            event.encoding = encoding;
+            event.commit();
+        }
+    }
+    
+    /**
+     * 以给定编码流式解码文件，跳过 BOM；遇到无法解码的字节时抛出 CharacterCodingException
+     * 逐字节映射的 ISO-8859-1 不会解码失败，出现 NUL 时视为二进制文件拒绝
+     */
+    private String decode(Path file, long size, CharsetDetector.TextEncoding encoding, String path)
+            throws IOException {
+        CharsetDecoder decoder = encoding.charset().newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        boolean rejectNul = StandardCharsets.ISO_8859_1.equals(encoding.charset());
+        try (InputStream in = Files.newInputStream(file);
+             Reader reader = new InputStreamReader(in, decoder)) {
+            in.skipNBytes(encoding.bom().length);
+            // 按解码后的字符数预估容量 (双字节编码约为字节数的一半)
+            long estimated = (long) ((size - encoding.bom().length) * (double) decoder.averageCharsPerByte());
+            StringBuilder content = new StringBuilder((int) Math.max(16, Math.min(estimated, Integer.MAX_VALUE - 8)));
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                if (rejectNul && containsNul(buffer, read)) {
+                    throw binaryFile(path);
+                }
+                content.append(buffer, 0, read);
+            }
+            return content.toString();
+        }
+    }
+    
+    private static boolean containsNul(char[] buffer, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] == '\0') {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static FileOperationException binaryFile(String path) {
+        return new FileOperationException("UNSUPPORTED_TYPE", "二进制文件不支持以文本方式读取或保存: " + path);
+    }
+    
+    /**
+     * 以文件原有编码流式写入内容：先写入同目录下的临时文件，完成后原子替换原文件
+     * 内容包含原编码无法表示的字符时，GBK 升级为其超集 GB18030，其他编码改用 UTF-8 (不带 BOM) 重新写入
+     */
+    private void encode(Path file, String content, CharsetDetector.TextEncoding encoding, String path)
+            throws IOException {
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), ".save", ".tmp");
+        try {
+            // 临时文件默认仅所有者可读写，替换后沿用原文件的权限
+            PosixFileAttributeView permissions = Files.getFileAttributeView(file, PosixFileAttributeView.class);
+            if (permissions != null) {
+                Files.setPosixFilePermissions(temp, permissions.readAttributes().permissions());
+            }
+            try {
+                writeEncoded(temp, content, encoding.charset(), encoding.bom());
+            } catch (CharacterCodingException e) {
+                Charset charset = encoding.charset();
+                Charset replacement = CharsetDetector.GBK.equals(charset) ? CharsetDetector.GB18030 : StandardCharsets.UTF_8;
+                log.info("内容包含 {} 无法表示的字符，改用 {} 保存: {}", charset.name(), replacement.name(), path);
+                try {
+                    writeEncoded(temp, content, replacement, new byte[0]);
+                } catch (CharacterCodingException unencodable) {
+                    throw new FileOperationException("FILE_WRITE_ERROR", "内容包含无法编码的字符: " + path);
+                }
+            }
+            // 编码失败时原文件保持不变
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    private void writeEncoded(Path target, String content, Charset charset, byte[] bom) throws IOException {
+        CharsetEncoder encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        try (OutputStream out = Files.newOutputStream(target, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            out.write(bom);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, encoder))) {
+                writer.write(content);
+            }
+        }
+    }
+    
+    /**
+     * 根目录树构建完成后异步写入快照，按配置间隔限流
+     */
+    private void scheduleSnapshotWrite(ManagedRoot root, Path rootPath, FileNodeDTO tree) {
+        long now = System.currentTimeMillis();
+        if (!treeSnapshot.isEnabled() || now - root.getLastSnapshotWrite() < snapshotWriteIntervalMs) {
+            return;
+        }
+        root.setLastSnapshotWrite(now);
+        snapshotExecutor.execute(() -> treeSnapshot.write(root.getId(), rootPath, tree));
+    }
     
     /**
      * 构建文件节点（递归）
      */
     private FileNodeDTO buildFileNode(Path filePath, String relativePath) {
+        RequestProfile.addEntries(1);
         try {
             boolean isDirectory = Files.isDirectory(filePath);
             String name = filePath.getFileName() != null ? filePath.getFileName().toString() : "";
             
+            FileTime lastModified = Files.getLastModifiedTime(filePath);
             FileNodeDTO.FileNodeDTOBuilder builder = FileNodeDTO.builder()
                     .name(name)
                     .path(relativePath)
                     .type(isDirectory ? "directory" : "file")
-                    .lastModified(LocalDateTime.ofInstant(
-                            Files.getLastModifiedTime(filePath).toInstant(),
-                            ZoneId.systemDefault()));
+                    .lastModified(LocalDateTime.ofInstant(lastModified.toInstant(), ZoneId.systemDefault()))
+                    .lastModifiedMillis(lastModified.toMillis());
             
             if (isDirectory) {
-                List<FileNodeDTO> children = new ArrayList<>();
+                // 先列举目录项再递归，列举耗时不包含子目录
+                DirectoryListingEvent listing = new DirectoryListingEvent();
+                listing.begin();
+                long listStart = System.nanoTime();
+                List<Path> entries;
                 try (Stream<Path> stream = Files.list(filePath)) {
-                    stream.forEach(child -> {
-                        String childRelativePath = relativePath.endsWith("/") 
-                                ? relativePath + child.getFileName()
-                                : relativePath + "/" + child.getFileName();
-                        children.add(buildFileNode(child, childRelativePath));
-                    });
+                    entries = stream.toList();
+                }
+                RequestProfile.addListing(System.nanoTime() - listStart);
+                listing.end();
+                if (listing.shouldCommit()) {
+                    listing.directory = filePath.toString();
+                    listing.entries = entries.size();
+                    listing.commit();
+                }
+                
+                List<FileNodeDTO> children = new ArrayList<>(entries.size());
+                for (Path child : entries) {
+                    String childRelativePath = relativePath.endsWith("/") 
+                            ? relativePath + child.getFileName()
+                            : relativePath + "/" + child.getFileName();
+                    children.add(buildFileNode(child, childRelativePath));
                 }
                 // 排序：目录优先，然后按字母顺序
+                long sortStart = System.nanoTime();
                 sortFileNodes(children);
+                RequestProfile.addSort(System.nanoTime() - sortStart);
                 builder.children(children);
             } else {
                 builder.extension(getExtension(name));
@@ -200,6 +574,19 @@ public class FileServiceImpl implements FileService {
         }
     }
     
+    /**
+     * 统计目录树中的节点数
+     */
+    private static long countNodes(FileNodeDTO node) {
+        long count = 1;
+        if (node.getChildren() != null) {
+            for (FileNodeDTO child : node.getChildren()) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+    
     /**
      * 排序文件节点：目录优先，字母顺序
      */
@@ -209,17 +596,6 @@ public class FileServiceImpl implements FileService {
                 .thenComparing(node -> node.getName().toLowerCase()));
     }
     
-    /**
-     * 解析相对路径为绝对路径
-     */
-    private Path resolvePath(String path) {
-        if (path == null || path.isEmpty() || path.equals("/")) {
-            return Paths.get(rootPath);
-        }
-        String cleanPath = path.startsWith("/") ? path.substring(1) : path;
-        return Paths.get(rootPath, cleanPath);
-    }
-    
     /**
      * 获取文件扩展名
      */
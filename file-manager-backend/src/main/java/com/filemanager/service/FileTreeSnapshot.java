@@ -0,0 +1,290 @@
+package com.filemanager.service;
+
+import com.filemanager.dto.FileNodeDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 目录树快照
+ * 将各根目录的元数据 (路径、大小、修改时间、目录结构) 以紧凑的二进制格式持久化 (每个根目录一个文件)，
+ * 重启后通过 MappedByteBuffer 映射，首次使用时才解码，使部署后的首个目录树请求无需冷遍历。
+ * 解码只锁定所属根目录的快照，大快照解码期间其他根目录的查询不受影响。
+ *
+ * 文件格式：
+ * <pre>
+ * int magic, int version, short rootLen, byte[] root (UTF-8), long createdAt, int entryCount
+ * entry (先序遍历): byte type, int childCount, long size, long lastModified, short nameLen, byte[] name
+ * </pre>
+ * lastModified 为 epoch 毫秒，直接取自文件时间戳，不经过本地时区转换。
+ */
+@Slf4j
+@Component
+public class FileTreeSnapshot {
+
+    private static final int MAGIC = 0x464D5458; // "FMTX"
+    private static final int VERSION = 1;
+    private static final byte TYPE_FILE = 0;
+    private static final byte TYPE_DIRECTORY = 1;
+
+    @Value("${file-manager.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${file-manager.snapshot.dir:${file-manager.data-dir:${user.home}/.file-manager}/snapshots}")
+    private String snapshotDir;
+
+    // 根目录标识 -> 已加载的快照
+    private final Map<String, LoadedSnapshot> loaded = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 映射快照文件，仅读取文件头校验根目录，条目在首次查询时才解码
+     * @param rootId 根目录标识
+     * @param root 当前规范化后的根目录
+     * @return 是否存在可用的快照
+     */
+    public boolean load(String rootId, Path root) {
+        if (!enabled) {
+            return false;
+        }
+        Path file = snapshotFile(rootId);
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                log.warn("目录树快照格式不匹配，忽略: {}", file);
+                return false;
+            }
+            Path snapshotRoot = Paths.get(readString(buffer));
+            if (!snapshotRoot.equals(root)) {
+                log.info("目录树快照根目录已变化 ({} -> {})，忽略", snapshotRoot, root);
+                return false;
+            }
+            long createdAt = buffer.getLong();
+            loaded.put(rootId, new LoadedSnapshot(root, buffer));
+            log.info("已映射目录树快照: {} (创建于 {})", file, Instant.ofEpochMilli(createdAt));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("加载目录树快照失败: {}", file, e);
+            return false;
+        }
+    }
+
+    /**
+     * 从快照中查找子树
+     * @param rootId 根目录标识
+     * @param root 当前规范化后的根目录
+     * @param path 请求路径，仅支持 "/" 或 "/a/b" 形式
+     * @return 快照中的节点，快照不可用或不包含该路径时返回 null
+     */
+    public FileNodeDTO lookup(String rootId, Path root, String path) {
+        LoadedSnapshot snapshot = loaded.get(rootId);
+        if (snapshot == null || !root.equals(snapshot.root)) {
+            return null;
+        }
+        FileNodeDTO tree = snapshot.tree();
+        if (path == null || path.equals("/")) {
+            return tree;
+        }
+        if (!path.startsWith("/") || path.endsWith("/")) {
+            return null;
+        }
+        FileNodeDTO node = tree;
+        for (String segment : path.substring(1).split("/")) {
+            node = findChild(node, segment);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * 使内存中的快照失效，之后的请求回到实时遍历
+     */
+    public void invalidate(String rootId) {
+        loaded.remove(rootId);
+    }
+
+    /**
+     * 将根目录树写入快照文件 (先写临时文件再原子替换)
+     */
+    public void write(String rootId, Path root, FileNodeDTO rootTree) {
+        if (!enabled) {
+            return;
+        }
+        Path file = snapshotFile(rootId);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, root.toString());
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(count(rootTree));
+            encode(out, rootTree);
+            out.flush();
+
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = Files.createTempFile(parent, "tree", ".tmp");
+            try {
+                Files.write(temp, bytes.toByteArray());
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            log.info("目录树快照已写入: {} ({} 字节)", file, bytes.size());
+        } catch (IOException e) {
+            log.warn("写入目录树快照失败: {}", file, e);
+        }
+    }
+
+    private void encode(DataOutputStream out, FileNodeDTO node) throws IOException {
+        List<FileNodeDTO> children = node.getChildren();
+        out.writeByte(node.isDirectory() ? TYPE_DIRECTORY : TYPE_FILE);
+        out.writeInt(children != null ? children.size() : 0);
+        out.writeLong(node.getSize() != null ? node.getSize() : 0L);
+        out.writeLong(node.getLastModifiedMillis() != null ? node.getLastModifiedMillis() : 0L);
+        writeString(out, node.getName() != null ? node.getName() : "");
+        if (children != null) {
+            for (FileNodeDTO child : children) {
+                encode(out, child);
+            }
+        }
+    }
+
+    private FileNodeDTO decode(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        FileNodeDTO root = decodeNode(buffer, null);
+        log.debug("目录树快照解码完成: {} 个条目", count);
+        return root;
+    }
+
+    private FileNodeDTO decodeNode(ByteBuffer buffer, String parentPath) {
+        byte type = buffer.get();
+        int childCount = buffer.getInt();
+        long size = buffer.getLong();
+        long lastModified = buffer.getLong();
+        String name = readString(buffer);
+        String relativePath = parentPath == null ? "/"
+                : parentPath.endsWith("/") ? parentPath + name : parentPath + "/" + name;
+
+        FileNodeDTO.FileNodeDTOBuilder builder = FileNodeDTO.builder()
+                .name(name)
+                .path(relativePath)
+                .type(type == TYPE_DIRECTORY ? "directory" : "file")
+                .lastModified(LocalDateTime.ofInstant(Instant.ofEpochMilli(lastModified), ZoneId.systemDefault()))
+                .lastModifiedMillis(lastModified);
+
+        if (type == TYPE_DIRECTORY) {
+            List<FileNodeDTO> children = new ArrayList<>(childCount);
+            for (int i = 0; i < childCount; i++) {
+                children.add(decodeNode(buffer, relativePath));
+            }
+            builder.children(children);
+        } else {
+            builder.size(size);
+            int lastDot = name.lastIndexOf('.');
+            builder.extension(lastDot > 0 && lastDot < name.length() - 1
+                    ? name.substring(lastDot + 1).toLowerCase() : "");
+        }
+        return builder.build();
+    }
+
+    private FileNodeDTO findChild(FileNodeDTO node, String name) {
+        if (node.getChildren() == null) {
+            return null;
+        }
+        for (FileNodeDTO child : node.getChildren()) {
+            if (name.equals(child.getName())) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    private int count(FileNodeDTO node) {
+        int total = 1;
+        if (node.getChildren() != null) {
+            for (FileNodeDTO child : node.getChildren()) {
+                total += count(child);
+            }
+        }
+        return total;
+    }
+
+    private Path snapshotFile(String rootId) {
+        return Paths.get(snapshotDir, "file-manager-tree-" + rootId + ".snapshot");
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 已加载的快照：解码前持有映射缓冲区，解码后只保留目录树
+     * 解码在该快照自身的锁内进行，只阻塞同一根目录的并发查询
+     */
+    private class LoadedSnapshot {
+        private final Path root;
+        private MappedByteBuffer mapped;
+        private volatile FileNodeDTO tree;
+
+        LoadedSnapshot(Path root, MappedByteBuffer mapped) {
+            this.root = root;
+            this.mapped = mapped;
+        }
+
+        FileNodeDTO tree() {
+            FileNodeDTO result = tree;
+            if (result == null) {
+                synchronized (this) {
+                    result = tree;
+                    if (result == null) {
+                        result = decode(mapped);
+                        tree = result;
+                        mapped = null;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
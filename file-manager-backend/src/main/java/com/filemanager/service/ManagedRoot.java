@@ -0,0 +1,282 @@
+package com.filemanager.service;
+
+import com.filemanager.config.RootsProperties;
+import com.filemanager.dto.FileContentDTO;
+import com.filemanager.dto.FileNodeDTO;
+import com.filemanager.exception.FileOperationException;
+import com.filemanager.profiling.RequestProfile;
+import com.filemanager.util.PathValidator;
+import com.filemanager.util.SingleFlight;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 受管理的根目录
+ * 每个根目录拥有独立的 I/O 线程池、并发许可与读缓存，慢速挂载点的延迟和线程占用不会影响其他根目录。
+ * 请求线程等待 I/O 结果的时间有上限，挂起的挂载点只会使该根目录的请求返回 ROOT_BUSY，不会无限占用 Tomcat 线程。
+ * 三类资源互相独立：
+ * <ul>
+ *   <li>I/O 许可与线程池：目录遍历、读写、解码等占用磁盘的操作</li>
+ *   <li>传输许可：在请求线程上流式下载期间持有，饱和时不影响其他操作</li>
+ *   <li>元数据线程：exists、属性读取等轻量操作，不等待 I/O 许可</li>
+ * </ul>
+ */
+public class ManagedRoot {
+
+    @Getter
+    private final String id;
+
+    private volatile Location location;
+
+    private final ThreadPoolExecutor ioExecutor;
+    private final Semaphore permits;
+    @Getter
+    private final int maxConcurrent;
+
+    private final ThreadPoolExecutor metadataExecutor;
+    private final Semaphore transferPermits;
+    private final int maxTransfers;
+    private final long acquireTimeoutMs;
+    private final long ioTimeoutMs;
+
+    // 是否允许在运行时修改路径 (仅未配置 file-manager.roots 且显式开启时)
+    @Getter
+    private final boolean mutable;
+
+    @Getter
+    private final SingleFlight<String, FileNodeDTO> treeFlight;
+    @Getter
+    private final SingleFlight<String, FileContentDTO> contentFlight;
+
+    // 最近一次写入目录树快照的时间
+    @Getter
+    @Setter
+    private volatile long lastSnapshotWrite;
+
+    /**
+     * @param definition 根目录配置
+     * @param reuseWindowMs 读结果复用窗口 (毫秒)
+     * @param mutable 是否允许在运行时修改路径
+     */
+    public ManagedRoot(RootsProperties.Root definition, long reuseWindowMs, boolean mutable) {
+        this.id = definition.getId();
+        this.location = new Location(definition.getPath(), PathValidator.normalizeRoot(definition.getPath()));
+        this.maxConcurrent = Math.max(1, definition.getMaxConcurrent());
+        this.maxTransfers = Math.max(1, definition.getMaxTransfers());
+        this.acquireTimeoutMs = definition.getAcquireTimeoutMs();
+        this.ioTimeoutMs = Math.max(1, definition.getIoTimeoutMs());
+        this.mutable = mutable;
+        this.permits = new Semaphore(this.maxConcurrent, true);
+        this.transferPermits = new Semaphore(this.maxTransfers, true);
+
+        // 队列容量与许可数一致，持有许可的任务总能入队
+        this.ioExecutor = newExecutor("io-" + id, definition.getIoThreads(), this.maxConcurrent);
+        // 元数据操作不占用 I/O 许可，队列有界，排满时直接返回 ROOT_BUSY
+        this.metadataExecutor = newExecutor("meta-" + id, definition.getMetadataThreads(),
+                Math.max(1, definition.getMetadataQueueSize()));
+
+        // 合并的请求最多等待首个请求的最长耗时 (等待许可 + 执行)
+        long maxWaitMs = acquireTimeoutMs + this.ioTimeoutMs;
+        this.treeFlight = new SingleFlight<>(reuseWindowMs, definition.getCacheEntries(), maxWaitMs);
+        this.contentFlight = new SingleFlight<>(reuseWindowMs, definition.getCacheEntries(), maxWaitMs);
+    }
+
+    private static ThreadPoolExecutor newExecutor(String prefix, int threads, int queueCapacity) {
+        int size = Math.max(1, threads);
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 配置的根目录路径
+     */
+    public String getPath() {
+        return location.path();
+    }
+
+    /**
+     * 规范化后的绝对根目录
+     */
+    public Path getNormalizedRoot() {
+        return location.normalized();
+    }
+
+    /**
+     * 更新根目录路径，并丢弃该根目录的读缓存
+     */
+    public void setPath(String rootPath) {
+        this.location = new Location(rootPath, PathValidator.normalizeRoot(rootPath));
+        invalidate();
+    }
+
+    /**
+     * 校验并解析根目录内的相对路径
+     */
+    public Path resolve(String path) {
+        return PathValidator.resolveWithinRoot(location.normalized(), path);
+    }
+
+    /**
+     * 在该根目录的 I/O 线程池中执行任务并等待结果
+     * 超出并发上限时等待许可，等待许可或执行超时均返回 ROOT_BUSY
+     */
+    public <T> T execute(Supplier<T> task) {
+        return call(task::get);
+    }
+
+    /**
+     * 在该根目录的 I/O 线程池中执行可抛出受检异常的任务，受检异常转换为 FILE_READ_ERROR
+     */
+    public <T> T call(Callable<T> task) {
+        acquire(permits);
+        try {
+            return submitAndWait(ioExecutor, task);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 在该根目录的元数据线程中执行轻量操作 (存在性检查、读取属性)
+     * 不等待 I/O 许可，重请求占满该根目录时仍能快速返回；执行超时或队列已满返回 ROOT_BUSY
+     */
+    public <T> T metadata(Callable<T> task) {
+        return submitAndWait(metadataExecutor, task);
+    }
+
+    private <T> T submitAndWait(ThreadPoolExecutor executor, Callable<T> task) {
+        // I/O 线程沿用当前请求的剖析统计
+        FutureTask<T> future = new FutureTask<>(RequestProfile.propagate(task));
+        try {
+            executor.execute(future);
+            return future.get(ioTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            throw new FileOperationException("ROOT_BUSY", "根目录繁忙，请稍后重试: " + id);
+        } catch (TimeoutException e) {
+            // 中断卡住的 I/O 并移出队列，请求线程不再等待
+            future.cancel(true);
+            executor.remove(future);
+            throw new FileOperationException("ROOT_BUSY", "根目录响应超时，请稍后重试: " + id);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new FileOperationException("ROOT_BUSY", "请求被中断: " + id);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new FileOperationException("FILE_READ_ERROR", "文件操作失败: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * 占用一个传输许可，用于必须在调用线程上完成的长时间传输 (如下载)
+     * 传输许可与 I/O 许可相互独立，下载占满时不影响目录树、读写等操作；等待超时返回 ROOT_BUSY
+     * @return 释放许可的操作，多次调用只释放一次
+     */
+    public Runnable acquireTransferPermit() {
+        acquire(transferPermits);
+        return releaseOnce(transferPermits);
+    }
+
+    /**
+     * 为后台任务占用一个 I/O 许可，一直等待到有可用许可
+     * @return 释放许可的操作，多次调用只释放一次
+     */
+    public Runnable awaitPermit() throws InterruptedException {
+        permits.acquire();
+        return releaseOnce(permits);
+    }
+
+    private void acquire(Semaphore semaphore) {
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            throw new FileOperationException("ROOT_BUSY", "根目录繁忙，请稍后重试: " + id);
+        }
+    }
+
+    private static Runnable releaseOnce(Semaphore semaphore) {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        };
+    }
+
+    /**
+     * 在该根目录的 I/O 线程池中执行无返回值的任务
+     */
+    public void run(Runnable task) {
+        execute(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * 丢弃该根目录可复用的读结果
+     */
+    public void invalidate() {
+        treeFlight.invalidate();
+        contentFlight.invalidate();
+    }
+
+    /**
+     * 运行统计：I/O 线程、I/O 许可、传输许可、元数据线程与请求合并情况
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("path", location.path());
+        stats.put("activeIoThreads", ioExecutor.getActiveCount());
+        stats.put("queuedTasks", ioExecutor.getQueue().size());
+        stats.put("inUsePermits", maxConcurrent - permits.availablePermits());
+        stats.put("inUseTransfers", maxTransfers - transferPermits.availablePermits());
+        stats.put("activeMetadataThreads", metadataExecutor.getActiveCount());
+        stats.put("tree", treeFlight.stats());
+        stats.put("content", contentFlight.stats());
+        return stats;
+    }
+
+    void shutdown() {
+        ioExecutor.shutdownNow();
+        metadataExecutor.shutdownNow();
+    }
+
+    private record Location(String path, Path normalized) {
+    }
+}
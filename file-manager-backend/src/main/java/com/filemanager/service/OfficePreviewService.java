@@ -0,0 +1,27 @@
+package com.filemanager.service;
+
+import com.filemanager.dto.SheetPageDTO;
+
+/**
+ * Office 文档预览服务接口
+ * 将 Word/Excel 文件渲染为前端可直接展示的格式
+ */
+public interface OfficePreviewService {
+
+    /**
+     * 将 Word 文档渲染为 HTML
+     * @param path 文件路径
+     * @return HTML 片段
+     */
+    String renderDocument(String path);
+
+    /**
+     * 分页读取 Excel 工作表
+     * @param path 文件路径
+     * @param sheetIndex 工作表索引
+     * @param page 页码 (从 0 开始)
+     * @param pageSize 每页行数，小于等于 0 时使用默认值
+     * @return 当前页数据
+     */
+    SheetPageDTO renderSheetPage(String path, int sheetIndex, int page, int pageSize);
+}
@@ -0,0 +1,389 @@
+package com.filemanager.service;
+
+import com.filemanager.dto.SheetPageDTO;
+import com.filemanager.exception.FileOperationException;
+import com.filemanager.util.LruCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.apache.poi.xwpf.usermodel.IBodyElement;
+import org.apache.poi.xwpf.usermodel.UnderlinePatterns;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.apache.poi.xwpf.usermodel.XWPFTableCell;
+import org.apache.poi.xwpf.usermodel.XWPFTableRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Office 文档预览服务实现类
+ * Word 使用 XWPF 转换为 HTML；Excel 使用 XSSF 事件模型 (SAX) 流式解析，
+ * 只读取请求页所需的行，避免整本工作簿加载到堆中。
+ * 渲染结果按 根目录+路径+大小+修改时间 缓存，相同内容的并发请求只渲染一次，渲染并发数受信号量限制。
+ * Word 文档需要整体加载，超过 max-document-bytes 的文件拒绝预览。
+ * 延迟到首次预览时创建，POI 相关类不参与应用启动。
+ */
+@Slf4j
+@Lazy
+@Service
+@RequiredArgsConstructor
+public class OfficePreviewServiceImpl implements OfficePreviewService {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final FileService fileService;
+    private final RootRegistry rootRegistry;
+
+    @Value("${file-manager.preview.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${file-manager.preview.acquire-timeout-ms:3000}")
+    private long acquireTimeoutMs;
+
+    @Value("${file-manager.preview.cache-entries:128}")
+    private int cacheEntries;
+
+    @Value("${file-manager.preview.page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${file-manager.preview.max-document-bytes:20971520}")
+    private long maxDocumentBytes;
+
+    private Semaphore renderPermits;
+    private LruCache<String, String> documentCache;
+    private LruCache<String, SheetPageDTO> sheetCache;
+
+    @PostConstruct
+    void init() {
+        renderPermits = new Semaphore(Math.max(1, maxConcurrent), true);
+        documentCache = new LruCache<>(cacheEntries);
+        sheetCache = new LruCache<>(cacheEntries);
+    }
+
+    @Override
+    public String renderDocument(String path) {
+        String extension = getExtension(path);
+        if (!"docx".equals(extension)) {
+            throw new FileOperationException("UNSUPPORTED_TYPE", "不支持预览此文档类型: " + extension);
+        }
+
+        // XWPF 会把整个文档加载到堆中，无法像表格那样流式读取，因此限制文件大小
+        Source source = stat(path);
+        if (source.size() > maxDocumentBytes) {
+            throw new FileOperationException("FILE_TOO_LARGE",
+                    "文档过大，无法预览 (上限 " + maxDocumentBytes / 1024 / 1024 + "MB): " + path);
+        }
+
+        // 相同文档的并发预览只渲染一次，读取与解析在根目录的 I/O 线程中执行
+        return documentCache.computeIfAbsent(source.key(),
+                key -> renderOnRoot(path, file -> convertDocx(file, path)));
+    }
+
+    @Override
+    public SheetPageDTO renderSheetPage(String path, int sheetIndex, int page, int pageSize) {
+        String extension = getExtension(path);
+        if (!"xlsx".equals(extension)) {
+            throw new FileOperationException("UNSUPPORTED_TYPE", "不支持预览此表格类型: " + extension);
+        }
+        if (sheetIndex < 0 || page < 0) {
+            throw new FileOperationException("INVALID_PARAMETER", "工作表索引和页码不能为负数");
+        }
+        int size = pageSize > 0 ? Math.min(pageSize, MAX_PAGE_SIZE) : defaultPageSize;
+
+        return sheetCache.computeIfAbsent(stat(path).key() + "|" + sheetIndex + "|" + page + "|" + size,
+                key -> renderOnRoot(path, file -> readSheetPage(file, path, sheetIndex, page, size)));
+    }
+
+    /**
+     * 在渲染许可内于根目录的 I/O 线程中执行渲染，许可不足时快速失败
+     * 请求等待超时后 POI 可能仍在解析，许可由实际执行渲染的 I/O 线程在结束时释放；
+     * 任务未开始执行就被移出队列时，由请求线程释放
+     */
+    private <T> T renderOnRoot(String path, FileService.PathOperation<T> render) {
+        boolean acquired;
+        try {
+            acquired = renderPermits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            throw new FileOperationException("PREVIEW_BUSY", "预览服务繁忙，请稍后重试");
+        }
+        AtomicBoolean claimed = new AtomicBoolean();
+        try {
+            return fileService.executeOnRoot(path, file -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    // 请求已放弃等待并释放了许可
+                    throw new FileOperationException("PREVIEW_BUSY", "预览服务繁忙，请稍后重试");
+                }
+                try {
+                    return render.apply(file);
+                } finally {
+                    renderPermits.release();
+                }
+            });
+        } finally {
+            if (claimed.compareAndSet(false, true)) {
+                renderPermits.release();
+            }
+        }
+    }
+
+    /**
+     * 将 docx 转换为 HTML 片段
+     */
+    private String convertDocx(Path file, String path) {
+        try (InputStream in = Files.newInputStream(file);
+             XWPFDocument document = new XWPFDocument(in)) {
+            StringBuilder html = new StringBuilder("<div class=\"docx-preview\">");
+            for (IBodyElement element : document.getBodyElements()) {
+                if (element instanceof XWPFParagraph paragraph) {
+                    appendParagraph(html, paragraph);
+                } else if (element instanceof XWPFTable table) {
+                    appendTable(html, table);
+                }
+            }
+            html.append("</div>");
+            log.debug("Word 文档渲染完成: {}", path);
+            return html.toString();
+        } catch (IOException e) {
+            log.error("渲染 Word 文档失败: {}", path, e);
+            throw new FileOperationException("PREVIEW_ERROR", "渲染文档失败: " + e.getMessage());
+        }
+    }
+
+    private void appendParagraph(StringBuilder html, XWPFParagraph paragraph) {
+        int level = headingLevel(paragraph.getStyle());
+        String tag = level > 0 ? "h" + level : "p";
+        html.append('<').append(tag).append('>');
+        for (XWPFRun run : paragraph.getRuns()) {
+            String text = run.text();
+            if (text == null || text.isEmpty()) {
+                continue;
+            }
+            boolean underline = run.getUnderline() != UnderlinePatterns.NONE;
+            if (run.isBold()) html.append("<strong>");
+            if (run.isItalic()) html.append("<em>");
+            if (underline) html.append("<u>");
+            html.append(HtmlUtils.htmlEscape(text).replace("\n", "<br/>"));
+            if (underline) html.append("</u>");
+            if (run.isItalic()) html.append("</em>");
+            if (run.isBold()) html.append("</strong>");
+        }
+        html.append("</").append(tag).append('>');
+    }
+
+    private void appendTable(StringBuilder html, XWPFTable table) {
+        html.append("<table>");
+        for (XWPFTableRow row : table.getRows()) {
+            html.append("<tr>");
+            for (XWPFTableCell cell : row.getTableCells()) {
+                html.append("<td>").append(HtmlUtils.htmlEscape(cell.getText())).append("</td>");
+            }
+            html.append("</tr>");
+        }
+        html.append("</table>");
+    }
+
+    /**
+     * 根据段落样式 ID 推断标题级别 (Heading1 / 标题 1 等)，非标题返回 0
+     */
+    private int headingLevel(String styleId) {
+        if (styleId == null || styleId.isEmpty()) {
+            return 0;
+        }
+        String lower = styleId.toLowerCase();
+        if (!lower.startsWith("heading") && !lower.startsWith("标题")) {
+            return 0;
+        }
+        char last = lower.charAt(lower.length() - 1);
+        return last >= '1' && last <= '6' ? last - '0' : 0;
+    }
+
+    /**
+     * 使用 SAX 流式读取工作表的指定页
+     * 只解析到当前页结束为止，后续行不再读取
+     */
+    private SheetPageDTO readSheetPage(Path file, String path, int sheetIndex, int page, int pageSize) {
+        int firstRow = page * pageSize;
+        PageCollector collector = new PageCollector(firstRow, firstRow + pageSize);
+        List<String> sheetNames = new ArrayList<>();
+        boolean found = false;
+
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader reader = new XSSFReader(pkg);
+            StylesTable styles = reader.getStylesTable();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+
+            int index = 0;
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    sheetNames.add(sheets.getSheetName());
+                    if (index == sheetIndex) {
+                        found = true;
+                        parseSheet(sheet, styles, strings, collector);
+                    }
+                }
+                index++;
+            }
+        } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException e) {
+            log.error("渲染 Excel 表格失败: {}", path, e);
+            throw new FileOperationException("PREVIEW_ERROR", "渲染表格失败: " + e.getMessage());
+        }
+
+        if (!found) {
+            throw new FileOperationException("INVALID_PARAMETER", "工作表不存在: " + sheetIndex);
+        }
+
+        return SheetPageDTO.builder()
+                .path(path)
+                .sheetNames(sheetNames)
+                .sheetIndex(sheetIndex)
+                .page(page)
+                .pageSize(pageSize)
+                .rows(collector.rows)
+                .hasMore(collector.hasMore)
+                .build();
+    }
+
+    private void parseSheet(InputStream sheet, StylesTable styles, ReadOnlySharedStringsTable strings,
+                            PageCollector collector)
+            throws IOException, SAXException, ParserConfigurationException {
+        XMLReader parser = XMLHelper.newXMLReader();
+        parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, collector, false));
+        try {
+            parser.parse(new InputSource(sheet));
+        } catch (StopParsingException ignored) {
+            // 已读取到当前页末尾，提前结束解析
+        }
+    }
+
+    /**
+     * 读取文件大小并生成缓存键：根目录 + 路径 + 大小 + 修改时间，文件变化后自动失效
+     * 文件属性在根目录的元数据线程中读取
+     */
+    private Source stat(String path) {
+        String rootId = rootRegistry.current().getId();
+        return fileService.statOnRoot(path, file -> {
+            BasicFileAttributes attrs;
+            try {
+                attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                throw new FileOperationException("FILE_NOT_FOUND", "文件不存在: " + path);
+            } catch (IOException e) {
+                throw new FileOperationException("FILE_READ_ERROR", "读取文件信息失败: " + e.getMessage());
+            }
+            if (!attrs.isRegularFile()) {
+                throw new FileOperationException("FILE_NOT_FOUND", "文件不存在: " + path);
+            }
+            return new Source(rootId + "|" + path + "|" + attrs.size() + "|" + attrs.lastModifiedTime().toMillis(),
+                    attrs.size());
+        });
+    }
+
+    private String getExtension(String filename) {
+        int lastDot = filename.lastIndexOf('.');
+        if (lastDot > 0 && lastDot < filename.length() - 1) {
+            return filename.substring(lastDot + 1).toLowerCase();
+        }
+        return "";
+    }
+
+    private record Source(String key, long size) {
+    }
+
+    /**
+     * 收集指定行区间的单元格，读到区间之后的行时中断解析
+     */
+    private static class PageCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final int firstRow;
+        private final int endRow;
+        private final List<List<String>> rows = new ArrayList<>();
+        private List<String> current;
+        private boolean hasMore;
+
+        PageCollector(int firstRow, int endRow) {
+            this.firstRow = firstRow;
+            this.endRow = endRow;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            if (rowNum >= endRow) {
+                hasMore = true;
+                throw new StopParsingException();
+            }
+            if (rowNum < firstRow) {
+                current = null;
+                return;
+            }
+            // SAX 会跳过空行，这里补齐以保持行号对应
+            while (firstRow + rows.size() < rowNum) {
+                rows.add(List.of());
+            }
+            current = new ArrayList<>();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (current != null) {
+                rows.add(current);
+                current = null;
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (current == null) {
+                return;
+            }
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : current.size();
+            while (current.size() < column) {
+                current.add("");
+            }
+            current.add(formattedValue);
+        }
+    }
+
+    /**
+     * 用于提前终止 SAX 解析的内部异常
+     */
+    private static class StopParsingException extends RuntimeException {
+        StopParsingException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.filemanager.service;
+
+/**
+ * 当前请求选择的根目录
+ * 由 RootSelectionFilter 在请求开始时设置，请求结束后清除
+ */
+public final class RootContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private RootContext() {
+    }
+
+    /**
+     * 当前根目录标识，未指定时返回 null (使用默认根目录)
+     */
+    public static String get() {
+        return CURRENT.get();
+    }
+
+    public static void set(String rootId) {
+        CURRENT.set(rootId);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
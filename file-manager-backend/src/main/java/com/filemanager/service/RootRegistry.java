@@ -0,0 +1,119 @@
+package com.filemanager.service;
+
+import com.filemanager.config.RootsProperties;
+import com.filemanager.exception.FileOperationException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 根目录注册表
+ * 根据 file-manager.roots 创建各根目录及其独立的 I/O 资源，未配置时以 file-manager.root-path 作为唯一根目录
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RootRegistry {
+
+    public static final String DEFAULT_ROOT_ID = "default";
+
+    private static final Pattern ROOT_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final RootsProperties properties;
+
+    @Value("${file-manager.root-path:./managed-files}")
+    private String defaultRootPath;
+
+    @Value("${file-manager.coalescing.enabled:true}")
+    private boolean coalescingEnabled;
+
+    @Value("${file-manager.coalescing.reuse-window-ms:500}")
+    private long reuseWindowMs;
+
+    // 是否允许客户端在运行时修改根目录路径，仅对未配置 roots 时的默认根目录生效
+    @Value("${file-manager.allow-root-path-change:false}")
+    private boolean allowRootPathChange;
+
+    private final Map<String, ManagedRoot> roots = new LinkedHashMap<>();
+    private String defaultRootId;
+
+    @PostConstruct
+    void init() {
+        List<RootsProperties.Root> definitions = properties.getRoots();
+        boolean legacy = definitions.isEmpty();
+        if (legacy) {
+            RootsProperties.Root root = new RootsProperties.Root();
+            root.setId(DEFAULT_ROOT_ID);
+            root.setPath(defaultRootPath);
+            definitions = List.of(root);
+        }
+
+        for (RootsProperties.Root definition : definitions) {
+            String id = definition.getId();
+            if (id == null || !ROOT_ID_PATTERN.matcher(id).matches()) {
+                throw new IllegalStateException("无效的根目录标识: " + id);
+            }
+            if (definition.getPath() == null || definition.getPath().isBlank()) {
+                throw new IllegalStateException("根目录未配置路径: " + id);
+            }
+            if (roots.containsKey(id)) {
+                throw new IllegalStateException("根目录标识重复: " + id);
+            }
+            roots.put(id, new ManagedRoot(definition, coalescingEnabled ? reuseWindowMs : 0L,
+                    legacy && allowRootPathChange));
+            log.info("已注册根目录 [{}]: {} (I/O 线程 {}, 并发上限 {}, 传输上限 {})", id, definition.getPath(),
+                    definition.getIoThreads(), definition.getMaxConcurrent(), definition.getMaxTransfers());
+        }
+        defaultRootId = roots.keySet().iterator().next();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        roots.values().forEach(ManagedRoot::shutdown);
+    }
+
+    /**
+     * 按标识获取根目录，标识为空时返回默认根目录
+     */
+    public ManagedRoot get(String id) {
+        ManagedRoot root = roots.get(id == null ? defaultRootId : id);
+        if (root == null) {
+            throw new FileOperationException("ROOT_NOT_FOUND", "根目录不存在: " + id);
+        }
+        return root;
+    }
+
+    /**
+     * 当前请求选择的根目录
+     */
+    public ManagedRoot current() {
+        return get(RootContext.get());
+    }
+
+    public Collection<ManagedRoot> all() {
+        return Collections.unmodifiableCollection(roots.values());
+    }
+
+    public boolean isCoalescingEnabled() {
+        return coalescingEnabled;
+    }
+
+    /**
+     * 各根目录的运行统计
+     */
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        roots.forEach((id, root) -> stats.put(id, root.stats()));
+        return stats;
+    }
+}
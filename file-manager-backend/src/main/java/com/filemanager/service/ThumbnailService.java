@@ -0,0 +1,25 @@
+package com.filemanager.service;
+
+import java.nio.file.Path;
+
+/**
+ * 图片缩略图服务接口
+ * 生成固定尺寸的缩略图并缓存在磁盘上
+ */
+public interface ThumbnailService {
+
+    /**
+     * 获取缩略图文件，缓存未命中时同步生成
+     * @param path 图片路径
+     * @param size 缩略图最长边像素，小于等于 0 时使用默认值
+     * @return 缓存中的缩略图文件 (JPEG)
+     */
+    Path getThumbnail(String path, int size);
+
+    /**
+     * 在后台为目录下的图片预生成缩略图
+     * @param directoryPath 目录路径
+     * @return 提交的生成任务数
+     */
+    int prefetchDirectory(String directoryPath);
+}
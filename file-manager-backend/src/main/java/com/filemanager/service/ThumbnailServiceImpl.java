@@ -0,0 +1,433 @@
+package com.filemanager.service;
+
+import com.filemanager.exception.FileOperationException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 图片缩略图服务实现类
+ * 使用 javax.imageio 按需降采样解码，在有界线程池中生成缩略图，
+ * 源文件的属性读取、目录列举与解码在所属根目录的 I/O 线程中执行，占用该根目录的并发许可，
+ * 结果以 JPEG 存入磁盘缓存 (键为 路径+修改时间+大小)，超出容量时按 LRU 淘汰。
+ * 按需请求优先于预生成任务执行，队列已满时丢弃排队中的预生成任务为按需请求腾出位置。
+ * 延迟到首次请求缩略图时创建，ImageIO 初始化与缓存目录扫描不参与应用启动。
+ */
+@Slf4j
+@Lazy
+@Service
+@RequiredArgsConstructor
+public class ThumbnailServiceImpl implements ThumbnailService {
+
+    private static final Set<String> SUPPORTED_EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "bmp");
+    private static final int MIN_SIZE = 32;
+    private static final int MAX_SIZE = 1024;
+
+    private final FileService fileService;
+    private final RootRegistry rootRegistry;
+
+    @Value("${file-manager.thumbnail.cache-dir:${file-manager.data-dir:${user.home}/.file-manager}/thumbnails}")
+    private String cacheDirectory;
+
+    @Value("${file-manager.thumbnail.max-cache-bytes:268435456}")
+    private long maxCacheBytes;
+
+    @Value("${file-manager.thumbnail.default-size:256}")
+    private int defaultSize;
+
+    @Value("${file-manager.thumbnail.worker-threads:2}")
+    private int workerThreads;
+
+    @Value("${file-manager.thumbnail.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${file-manager.thumbnail.timeout-ms:10000}")
+    private long timeoutMs;
+
+    private Path cacheDir;
+    private ThreadPoolExecutor executor;
+    private final Map<String, Task> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Object submitLock = new Object();
+
+    // 磁盘缓存索引：文件名 -> 字节数，按访问顺序排列
+    private final LinkedHashMap<String, Long> cacheIndex = new LinkedHashMap<>(64, 0.75f, true);
+    private long cacheBytes;
+
+    @PostConstruct
+    void init() throws IOException {
+        cacheDir = Paths.get(cacheDirectory).toAbsolutePath().normalize();
+        Files.createDirectories(cacheDir);
+        loadCacheIndex();
+
+        AtomicInteger counter = new AtomicInteger();
+        int threads = Math.max(1, workerThreads);
+        // 优先级队列本身无界，排队数量在 submit 中按 queue-capacity 控制
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnail-worker-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        log.info("缩略图缓存目录: {} (已缓存 {} 个, {} 字节)", cacheDir, cacheIndex.size(), cacheBytes);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Path getThumbnail(String path, int size) {
+        if (!isSupported(path)) {
+            throw new FileOperationException("UNSUPPORTED_TYPE", "不支持生成此类型的缩略图: " + path);
+        }
+        // 工作线程不携带请求的根目录上下文，在请求线程中确定所属根目录
+        ManagedRoot root = rootRegistry.current();
+        Path file = fileService.getFilePath(path);
+
+        int targetSize = normalizeSize(size);
+        // 只读取属性，在元数据线程中执行，不等待 I/O 许可
+        String key = root.metadata(() -> {
+            if (!Files.isRegularFile(file)) {
+                throw new FileOperationException("FILE_NOT_FOUND", "文件不存在: " + path);
+            }
+            return cacheKey(file, targetSize);
+        });
+        Path target = cacheDir.resolve(key + ".jpg");
+        if (isCached(key, target)) {
+            return target;
+        }
+
+        CompletableFuture<Path> future = submit(key, root, file, target, targetSize, true);
+        if (future == null) {
+            throw new FileOperationException("PREVIEW_BUSY", "缩略图服务繁忙，请稍后重试");
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new FileOperationException("PREVIEW_BUSY", "缩略图生成超时，请稍后重试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileOperationException("PREVIEW_BUSY", "缩略图生成被中断");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof FileOperationException cause) {
+                throw cause;
+            }
+            log.error("生成缩略图失败: {}", path, e.getCause());
+            throw new FileOperationException("THUMBNAIL_ERROR", "生成缩略图失败: " + e.getCause().getMessage());
+        }
+    }
+
+    @Override
+    public int prefetchDirectory(String directoryPath) {
+        ManagedRoot root = rootRegistry.current();
+        Path directory = fileService.getFilePath(directoryPath);
+        int targetSize = normalizeSize(0);
+
+        // 列举目录并计算缓存键：图片路径 -> 缓存键
+        Map<Path, String> images = root.call(() -> {
+            if (!Files.isDirectory(directory)) {
+                throw new FileOperationException("DIRECTORY_NOT_FOUND", "目录不存在: " + directoryPath);
+            }
+            Map<Path, String> keys = new LinkedHashMap<>();
+            try (Stream<Path> stream = Files.list(directory)) {
+                for (Path image : stream.filter(Files::isRegularFile)
+                        .filter(p -> isSupported(p.getFileName().toString()))
+                        .toList()) {
+                    keys.put(image, cacheKey(image, targetSize));
+                }
+            } catch (IOException e) {
+                log.error("预生成缩略图失败: {}", directoryPath, e);
+                throw new FileOperationException("FILE_READ_ERROR", "读取目录失败: " + e.getMessage());
+            }
+            return keys;
+        });
+
+        int submitted = 0;
+        for (Map.Entry<Path, String> image : images.entrySet()) {
+            String key = image.getValue();
+            Path target = cacheDir.resolve(key + ".jpg");
+            if (isCached(key, target)) {
+                continue;
+            }
+            if (submit(key, root, image.getKey(), target, targetSize, false) == null) {
+                // 队列已满，剩余图片留给按需生成
+                break;
+            }
+            submitted++;
+        }
+        log.debug("已提交 {} 个缩略图预生成任务: {}", submitted, directoryPath);
+        return submitted;
+    }
+
+    /**
+     * 提交生成任务，相同键的并发请求共享同一任务
+     * 按需请求 (urgent) 排在所有预生成任务之前；排队中的预生成任务被按需请求命中时提升为按需任务。
+     * 队列已满时，按需请求丢弃最近提交的预生成任务腾出位置，预生成任务直接放弃；无法入队时返回 null
+     */
+    private CompletableFuture<Path> submit(String key, ManagedRoot root, Path source, Path target, int size,
+                                           boolean urgent) {
+        synchronized (submitLock) {
+            BlockingQueue<Runnable> queue = executor.getQueue();
+            Task existing = inFlight.get(key);
+            if (existing != null) {
+                if (urgent && !existing.urgent && queue.remove(existing)) {
+                    existing.urgent = true;
+                    queue.offer(existing);
+                }
+                return existing.future;
+            }
+            if (queue.size() >= Math.max(1, queueCapacity) && !(urgent && dropPrefetch(queue))) {
+                return null;
+            }
+            Task task = new Task(key, root, source, target, size, urgent, sequence.incrementAndGet());
+            inFlight.put(key, task);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(key, task);
+                return null;
+            }
+            return task.future;
+        }
+    }
+
+    /**
+     * 丢弃排队中最近提交的预生成任务，没有可丢弃的任务时返回 false
+     */
+    private boolean dropPrefetch(BlockingQueue<Runnable> queue) {
+        Task victim = null;
+        for (Runnable queued : queue) {
+            if (queued instanceof Task task && !task.urgent && (victim == null || task.order > victim.order)) {
+                victim = task;
+            }
+        }
+        if (victim == null || !queue.remove(victim)) {
+            return false;
+        }
+        inFlight.remove(victim.key, victim);
+        victim.future.cancel(false);
+        return true;
+    }
+
+    /**
+     * 解码、缩放并写入缓存文件 (先写临时文件再原子替换)
+     * 读取源文件的解码在根目录的 I/O 线程中执行，缩放与编码在缩略图工作线程中完成
+     */
+    private void generate(ManagedRoot root, Path source, Path target, int size) throws IOException {
+        BufferedImage decoded = root.call(() -> decodeSubsampled(source, size));
+        int width = decoded.getWidth();
+        int height = decoded.getHeight();
+        double scale = Math.min(1.0, (double) size / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage thumbnail = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = thumbnail.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, targetWidth, targetHeight);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(decoded, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            g.dispose();
+        }
+
+        Path temp = Files.createTempFile(cacheDir, "thumb", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                ImageIO.write(thumbnail, "jpg", out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 降采样解码：按目标尺寸的两倍计算采样步长，大图 (尤其是 JPEG) 无需完整解码
+     */
+    private BufferedImage decodeSubsampled(Path source, int size) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new FileOperationException("UNSUPPORTED_TYPE", "无法解码图片: " + source.getFileName());
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longest / (size * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private synchronized boolean isCached(String key, Path target) {
+        String name = key + ".jpg";
+        if (cacheIndex.get(name) == null) {
+            return false;
+        }
+        if (!Files.exists(target)) {
+            cacheBytes -= cacheIndex.remove(name);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 记录新生成的缓存文件，并在超出容量时淘汰最久未访问的条目
+     */
+    private synchronized void record(Path target) throws IOException {
+        String name = target.getFileName().toString();
+        long bytes = Files.size(target);
+        Long previous = cacheIndex.put(name, bytes);
+        cacheBytes += bytes - (previous != null ? previous : 0L);
+
+        Iterator<Map.Entry<String, Long>> it = cacheIndex.entrySet().iterator();
+        while (cacheBytes > maxCacheBytes && cacheIndex.size() > 1 && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            if (eldest.getKey().equals(name)) {
+                continue;
+            }
+            it.remove();
+            cacheBytes -= eldest.getValue();
+            Files.deleteIfExists(cacheDir.resolve(eldest.getKey()));
+        }
+    }
+
+    /**
+     * 启动时扫描缓存目录，按修改时间重建 LRU 顺序
+     */
+    private synchronized void loadCacheIndex() throws IOException {
+        try (Stream<Path> stream = Files.list(cacheDir)) {
+            List<Path> files = stream
+                    .filter(p -> p.getFileName().toString().endsWith(".jpg"))
+                    .sorted(Comparator.comparingLong(p -> p.toFile().lastModified()))
+                    .toList();
+            for (Path file : files) {
+                long bytes = Files.size(file);
+                cacheIndex.put(file.getFileName().toString(), bytes);
+                cacheBytes += bytes;
+            }
+        }
+    }
+
+    /**
+     * 缓存键：绝对路径 + 修改时间 + 大小 + 缩略图尺寸
+     */
+    private String cacheKey(Path file, int size) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            String raw = file.toAbsolutePath().normalize() + "|" + attrs.lastModifiedTime().toMillis()
+                    + "|" + attrs.size() + "|" + size;
+            return DigestUtils.md5DigestAsHex(raw.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new FileOperationException("FILE_READ_ERROR", "读取文件信息失败: " + e.getMessage());
+        }
+    }
+
+    private int normalizeSize(int size) {
+        int value = size > 0 ? size : defaultSize;
+        return Math.max(MIN_SIZE, Math.min(MAX_SIZE, value));
+    }
+
+    private boolean isSupported(String filename) {
+        int lastDot = filename.lastIndexOf('.');
+        return lastDot > 0 && SUPPORTED_EXTENSIONS.contains(filename.substring(lastDot + 1).toLowerCase());
+    }
+
+    /**
+     * 缩略图生成任务：按需任务优先，同一优先级内按提交顺序执行
+     * urgent 只在任务不在队列中时修改，不会破坏优先级队列的顺序
+     */
+    private final class Task implements Runnable, Comparable<Task> {
+
+        private final String key;
+        private final ManagedRoot root;
+        private final Path source;
+        private final Path target;
+        private final int size;
+        private final long order;
+        private final CompletableFuture<Path> future = new CompletableFuture<>();
+        private volatile boolean urgent;
+
+        Task(String key, ManagedRoot root, Path source, Path target, int size, boolean urgent, long order) {
+            this.key = key;
+            this.root = root;
+            this.source = source;
+            this.target = target;
+            this.size = size;
+            this.urgent = urgent;
+            this.order = order;
+        }
+
+        @Override
+        public void run() {
+            try {
+                generate(root, source, target, size);
+                record(target);
+                future.complete(target);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                inFlight.remove(key, this);
+            }
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (urgent != other.urgent) {
+                return urgent ? -1 : 1;
+            }
+            return Long.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.filemanager.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD 自适应并发限制器
+ * 请求延迟低于目标值时并发上限加性增长 (每个完成的请求 +1/limit)，
+ * 超过目标值时乘性下降；超出上限的请求在有界队列中等待，队列已满或等待超时则拒绝。
+ */
+public class AdaptiveLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final int maxQueue;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private long accepted;
+    private long rejected;
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, long targetLatencyMillis, int maxQueue) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+        this.maxQueue = Math.max(0, maxQueue);
+    }
+
+    /**
+     * 获取执行许可
+     * @param timeoutMillis 排队等待的最长时间
+     * @return 是否获得许可；队列已满或等待超时返回 false
+     */
+    public boolean acquire(long timeoutMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                accepted++;
+                return true;
+            }
+            if (waiting >= maxQueue) {
+                rejected++;
+                return false;
+            }
+            waiting++;
+            try {
+                long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+                while (inFlight >= (int) limit) {
+                    if (nanos <= 0) {
+                        rejected++;
+                        return false;
+                    }
+                    nanos = available.awaitNanos(nanos);
+                }
+                inFlight++;
+                accepted++;
+                return true;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 释放许可并根据本次请求的延迟调整并发上限
+     * @param latencyNanos 请求耗时
+     * @param failed 请求是否因过载或服务端错误失败
+     */
+    public void release(long latencyNanos, boolean failed) {
+        lock.lock();
+        try {
+            // 仅在接近上限时增长，避免空闲时上限无意义地涨到最大值
+            boolean saturated = inFlight >= limit / 2;
+            inFlight--;
+            if (failed || latencyNanos > targetLatencyNanos) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 当前状态：并发上限及其上界、执行中、排队中、累计接受与拒绝数
+     */
+    public Map<String, Object> stats() {
+        lock.lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("limit", (int) limit);
+            stats.put("maxLimit", maxLimit);
+            stats.put("inFlight", inFlight);
+            stats.put("waiting", waiting);
+            stats.put("accepted", accepted);
+            stats.put("rejected", rejected);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
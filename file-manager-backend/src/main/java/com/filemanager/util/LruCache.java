@@ -0,0 +1,117 @@
+package com.filemanager.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 简单的线程安全 LRU 缓存
+ * 基于访问顺序的 LinkedHashMap，超过容量时淘汰最久未访问的条目
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class LruCache<K, V> {
+
+    private final int maxEntries;
+    private final LinkedHashMap<K, V> map;
+
+    // 正在计算中的键，同一键的并发 computeIfAbsent 共享一次计算
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    public LruCache(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > LruCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 获取缓存值，不存在时返回 null
+     */
+    public synchronized V get(K key) {
+        return map.get(key);
+    }
+
+    /**
+     * 写入缓存值
+     */
+    public synchronized void put(K key, V value) {
+        map.put(key, value);
+    }
+
+    /**
+     * 移除缓存值
+     */
+    public synchronized V remove(K key) {
+        return map.remove(key);
+    }
+
+    /**
+     * 获取缓存值，不存在时调用 loader 计算
+     * loader 在锁外执行；同一键的并发调用只执行一次 loader，其余调用等待并共享其结果或异常
+     */
+    public V computeIfAbsent(K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            // 获得计算权之前，上一轮计算可能刚刚写入缓存
+            value = get(key);
+            if (value == null) {
+                value = loader.apply(key);
+                if (value != null) {
+                    put(key, value);
+                }
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 当前条目数
+     */
+    public synchronized int size() {
+        return map.size();
+    }
+}
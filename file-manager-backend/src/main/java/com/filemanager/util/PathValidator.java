@@ -2,10 +2,10 @@ package com.filemanager.util;
 
 import com.filemanager.exception.FileOperationException;
 
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 /**
  * 路径验证工具类
@@ -13,9 +13,6 @@ import java.util.regex.Pattern;
  */
 public class PathValidator {
     
-    // 路径遍历模式
-    private static final Pattern PATH_TRAVERSAL_PATTERN = Pattern.compile("(^|[/\\\\])\\.\\.[/\\\\]?");
-    
     // Windows 非法字符
     private static final Set<Character> INVALID_CHARS = Set.of(
             '<', '>', ':', '"', '|', '?', '*'
@@ -35,27 +32,72 @@ public class PathValidator {
         if (path == null) {
             return;
         }
-        
-        // 检查路径遍历模式
-        if (PATH_TRAVERSAL_PATTERN.matcher(path).find()) {
-            throw new FileOperationException("PATH_TRAVERSAL", "检测到路径遍历攻击: " + path);
+        resolveWithinRoot(normalizeRoot(rootPath), path);
+    }
+    
+    /**
+     * 将根目录转换为绝对、规范化的路径
+     * 结果应由调用方缓存，仅在根目录变化时重新计算
+     */
+    public static Path normalizeRoot(String rootPath) {
+        try {
+            return Paths.get(rootPath).toAbsolutePath().normalize();
+        } catch (InvalidPathException e) {
+            throw new FileOperationException("INVALID_PATH", "无效路径: " + rootPath);
+        }
+    }
+    
+    /**
+     * 校验并解析相对路径（单次扫描，无正则）
+     * 在一次遍历中检查路径遍历片段与非法字符，仅当存在 "." 片段时才做 normalize
+     * @param root 已规范化的绝对根目录，见 {@link #normalizeRoot(String)}
+     * @param path 相对路径，可带前导分隔符
+     * @return 根目录内的绝对路径
+     */
+    public static Path resolveWithinRoot(Path root, String path) {
+        if (path == null) {
+            return root;
+        }
+        int length = path.length();
+        int start = 0;
+        while (start < length && isSeparator(path.charAt(start))) {
+            start++;
+        }
+        if (start == length) {
+            return root;
         }
         
-        // 检查解析后的路径是否在根目录内
-        try {
-            Path root = Paths.get(rootPath).toAbsolutePath().normalize();
-            Path resolved = root.resolve(path.startsWith("/") ? path.substring(1) : path)
-                    .toAbsolutePath().normalize();
-            
-            if (!resolved.startsWith(root)) {
-                throw new FileOperationException("PATH_TRAVERSAL", "路径超出允许范围: " + path);
+        boolean needsNormalize = false;
+        for (int i = start; i < length; i++) {
+            char c = path.charAt(i);
+            if (c == '\0') {
+                throw new FileOperationException("INVALID_PATH", "无效路径: " + path);
             }
-        } catch (Exception e) {
-            if (e instanceof FileOperationException) {
-                throw e;
+            if (c == '.' && (i == start || isSeparator(path.charAt(i - 1)))) {
+                char next = i + 1 < length ? path.charAt(i + 1) : '/';
+                if (next == '.') {
+                    throw new FileOperationException("PATH_TRAVERSAL", "检测到路径遍历攻击: " + path);
+                }
+                if (isSeparator(next)) {
+                    needsNormalize = true;
+                }
             }
+        }
+        
+        Path resolved;
+        try {
+            resolved = root.resolve(start == 0 ? path : path.substring(start));
+        } catch (InvalidPathException e) {
             throw new FileOperationException("INVALID_PATH", "无效路径: " + path);
         }
+        if (needsNormalize) {
+            resolved = resolved.normalize();
+        }
+        // 防御：如盘符等形式的绝对路径会使 resolve 跳出根目录
+        if (!resolved.startsWith(root)) {
+            throw new FileOperationException("PATH_TRAVERSAL", "路径超出允许范围: " + path);
+        }
+        return resolved;
     }
     
     /**
@@ -96,11 +138,23 @@ public class PathValidator {
     
     /**
      * 检查路径是否包含路径遍历模式
+     * 即任一片段以 ".." 开头
      */
     public static boolean containsPathTraversal(String path) {
         if (path == null) {
             return false;
         }
-        return PATH_TRAVERSAL_PATTERN.matcher(path).find();
+        int length = path.length();
+        for (int i = 0; i + 1 < length; i++) {
+            if (path.charAt(i) == '.' && path.charAt(i + 1) == '.'
+                    && (i == 0 || isSeparator(path.charAt(i - 1)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean isSeparator(char c) {
+        return c == '/' || c == '\\';
     }
 }
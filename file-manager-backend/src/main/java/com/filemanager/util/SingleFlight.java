@@ -0,0 +1,139 @@
+package com.filemanager.util;
+
+import com.filemanager.exception.FileOperationException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 相同请求合并执行 (single-flight)
+ * 同一键的并发调用只执行一次计算，结果分发给所有等待者；
+ * 可选地在短时间窗口内复用已完成的结果。
+ * 等待者的等待时间有上限，超时返回 ROOT_BUSY，计算本身继续进行。
+ * @param <K> 键类型
+ * @param <V> 结果类型
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, Completed<V>> recent = new ConcurrentHashMap<>();
+    private final long reuseWindowNanos;
+    private final int maxEntries;
+    private final long maxWaitMillis;
+
+    // 每次失效递增，用于丢弃失效前开始的计算结果
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+
+    /**
+     * @param reuseWindowMillis 结果复用窗口 (毫秒)，0 表示只合并进行中的请求
+     * @param maxEntries 可复用结果的条目上限
+     * @param maxWaitMillis 等待进行中计算的最长时间 (毫秒)
+     */
+    public SingleFlight(long reuseWindowMillis, int maxEntries, long maxWaitMillis) {
+        this.reuseWindowNanos = Math.max(0, reuseWindowMillis) * 1_000_000L;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxWaitMillis = Math.max(1, maxWaitMillis);
+    }
+
+    /**
+     * 执行计算，若已有相同键的计算在进行中则等待其结果
+     */
+    public V execute(K key, Supplier<V> task) {
+        if (reuseWindowNanos > 0) {
+            Completed<V> completed = recent.get(key);
+            if (completed != null && System.nanoTime() - completed.completedAt() < reuseWindowNanos) {
+                reused.incrementAndGet();
+                return completed.value();
+            }
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+
+        executions.incrementAndGet();
+        long startGeneration = generation.get();
+        try {
+            V value = task.get();
+            if (reuseWindowNanos > 0 && startGeneration == generation.get()) {
+                remember(key, value);
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 丢弃所有可复用的结果 (数据发生变化时调用)
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        recent.clear();
+    }
+
+    /**
+     * 统计信息：实际执行次数、合并次数、复用次数、当前进行中的计算数
+     */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("executions", executions.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("reused", reused.get());
+        stats.put("inFlight", (long) inFlight.size());
+        return stats;
+    }
+
+    private void remember(K key, V value) {
+        long now = System.nanoTime();
+        if (recent.size() >= maxEntries) {
+            recent.values().removeIf(c -> now - c.completedAt() >= reuseWindowNanos);
+            if (recent.size() >= maxEntries) {
+                // 超出缓存预算时不再保留结果
+                return;
+            }
+        }
+        recent.put(key, new Completed<>(value, now));
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new FileOperationException("ROOT_BUSY", "等待相同请求的结果超时，请稍后重试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileOperationException("ROOT_BUSY", "请求被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private record Completed<V>(V value, long completedAt) {
+    }
+}
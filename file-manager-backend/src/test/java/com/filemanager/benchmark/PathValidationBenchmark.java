@@ -0,0 +1,79 @@
+package com.filemanager.benchmark;
+
+import com.filemanager.util.PathValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 路径校验与解析基准测试
+ * 对比旧实现 (正则 + 每次规范化根目录) 与缓存根目录的单次扫描实现
+ *
+ * 运行方式 (JMH 派生的测量进程需要继承完整类路径，因此不能使用 exec:java)：
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main PathValidationBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathValidationBenchmark {
+
+    private static final Pattern LEGACY_TRAVERSAL = Pattern.compile("(^|[/\\\\])\\.\\.[/\\\\]?");
+
+    @Param({"/readme.md", "/notes/2024/project/design/overview.md"})
+    private String path;
+
+    private String rootPath;
+    private Path normalizedRoot;
+
+    @Setup
+    public void setup() {
+        rootPath = "./managed-files";
+        normalizedRoot = PathValidator.normalizeRoot(rootPath);
+    }
+
+    @Benchmark
+    public Path legacy() {
+        String cleanPath = path.startsWith("/") ? path.substring(1) : path;
+        Path resolved = Paths.get(rootPath, cleanPath);
+        if (LEGACY_TRAVERSAL.matcher(path).find()) {
+            throw new IllegalStateException();
+        }
+        Path root = Paths.get(rootPath).toAbsolutePath().normalize();
+        Path checked = root.resolve(cleanPath).toAbsolutePath().normalize();
+        if (!checked.startsWith(root)) {
+            throw new IllegalStateException();
+        }
+        return resolved;
+    }
+
+    @Benchmark
+    public Path singlePass() {
+        return PathValidator.resolveWithinRoot(normalizedRoot, path);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PathValidationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,196 @@
+package com.filemanager.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 启动时间与首个请求延迟基准测试
+ * 对比 基线 jar (默认构建的 fat jar，通常取自优化前的提交) 与 fast-startup 构建产物的 AOT / AOT+CDS 启动方式，记录：
+ * 进程启动到 "Started FileManagerApplication" 日志的时间，以及就绪后首个 /api/files/tree 请求的延迟。
+ * 每轮按相同顺序运行所有方式，首轮仅用于预热文件系统缓存，不计入结果。
+ *
+ * 运行方式 (fast-startup 构建会覆盖同名 jar，基线 jar 需先复制到其他位置)：
+ * mvn package -DskipTests
+ * cp target/file-manager-backend-1.0.0.jar /tmp/baseline.jar
+ * mvn -Pfast-startup package -DskipTests
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.filemanager.benchmark.StartupBenchmark \
+ *     -Dexec.args="target/file-manager-backend-1.0.0.jar /tmp/baseline.jar 10"
+ */
+public class StartupBenchmark {
+
+    private static final String READY_MARKER = "Started FileManagerApplication";
+    private static final long READY_TIMEOUT_SECONDS = 120;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("用法: StartupBenchmark <fast-startup jar> <基线 jar> [轮数]");
+        }
+        Path jar = Paths.get(args[0]).toAbsolutePath();
+        Path baselineJar = Paths.get(args[1]).toAbsolutePath();
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        Path archive = jar.resolveSibling("app.jsa");
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("找不到 jar，请先执行 mvn -Pfast-startup package: " + jar);
+        }
+        if (!Files.isRegularFile(baselineJar)) {
+            throw new IllegalStateException("找不到基线 jar: " + baselineJar);
+        }
+
+        Map<String, Variant> variants = new LinkedHashMap<>();
+        variants.put("baseline", new Variant(baselineJar, List.of()));
+        variants.put("aot", new Variant(jar, List.of("-Dspring.aot.enabled=true")));
+        if (Files.isRegularFile(archive)) {
+            variants.put("aot+cds", new Variant(jar,
+                    List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + archive)));
+        } else {
+            System.out.println("未找到 CDS 归档，跳过 aot+cds: " + archive);
+        }
+
+        Path workDir = Files.createTempDirectory("startup-benchmark");
+        Map<String, List<long[]>> results = new LinkedHashMap<>();
+        try {
+            Path root = createDataset(workDir.resolve("root"));
+            variants.keySet().forEach(name -> results.put(name, new ArrayList<>()));
+            for (int round = 0; round <= rounds; round++) {
+                for (Map.Entry<String, Variant> variant : variants.entrySet()) {
+                    long[] sample = runOnce(variant.getValue(), root, workDir);
+                    if (round > 0) {
+                        results.get(variant.getKey()).add(sample);
+                    }
+                    System.out.printf("round %d %-8s startup=%d ms firstRequest=%d ms%n",
+                            round, variant.getKey(), sample[0], sample[1]);
+                }
+            }
+        } finally {
+            deleteRecursively(workDir);
+        }
+
+        System.out.println();
+        System.out.printf("%-8s %26s %26s%n", "variant", "startup ms (p50/min/max)", "first request ms (p50/min/max)");
+        results.forEach((name, samples) -> System.out.printf("%-8s %26s %26s%n", name,
+                summary(samples, 0), summary(samples, 1)));
+    }
+
+    /**
+     * 启动一次应用，返回 {启动耗时, 首个请求耗时} (毫秒)
+     */
+    private static long[] runOnce(Variant variant, Path root, Path workDir) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(variant.jvmArgs());
+        command.add("-jar");
+        command.add(variant.jar().toString());
+        command.add("--server.port=" + port);
+        command.add("--file-manager.root-path=" + root);
+        command.add("--file-manager.snapshot.enabled=false");
+        command.add("--file-manager.data-dir=" + workDir.resolve("data"));
+        command.add("--file-manager.hash.dir=" + workDir);
+        command.add("--file-manager.thumbnail.cache-dir=" + workDir.resolve("thumbnails"));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try {
+            CompletableFuture<Long> ready = new CompletableFuture<>();
+            Thread reader = new Thread(() -> drain(process, start, ready), "startup-benchmark-output");
+            reader.setDaemon(true);
+            reader.start();
+
+            long startupNanos = ready.get(READY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create("http://127.0.0.1:" + port + "/api/files/tree?path=/")).GET().build();
+            long requestStart = System.nanoTime();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            long requestNanos = System.nanoTime() - requestStart;
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("首个请求失败: HTTP " + response.statusCode());
+            }
+            return new long[]{TimeUnit.NANOSECONDS.toMillis(startupNanos), TimeUnit.NANOSECONDS.toMillis(requestNanos)};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static void drain(Process process, long start, CompletableFuture<Long> ready) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!ready.isDone() && line.contains(READY_MARKER)) {
+                    ready.complete(System.nanoTime() - start);
+                }
+            }
+            ready.completeExceptionally(new IllegalStateException("应用在就绪前退出，退出码 " + process.waitFor()));
+        } catch (IOException | InterruptedException e) {
+            ready.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 生成固定的目录结构：20 个目录，每个目录 50 个小文本文件
+     */
+    private static Path createDataset(Path root) throws IOException {
+        for (int d = 0; d < 20; d++) {
+            Path dir = Files.createDirectories(root.resolve("dir-" + d));
+            for (int f = 0; f < 50; f++) {
+                Files.writeString(dir.resolve("file-" + f + ".txt"), "line " + d + "-" + f + "\n".repeat(16));
+            }
+        }
+        return root;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String summary(List<long[]> samples, int index) {
+        if (samples.isEmpty()) {
+            return "-";
+        }
+        List<Long> values = new ArrayList<>(samples.stream().map(sample -> sample[index]).toList());
+        Collections.sort(values);
+        return values.get(values.size() / 2) + " / " + values.get(0) + " / " + values.get(values.size() - 1);
+    }
+
+    /**
+     * 一种启动方式：jar 与额外的 JVM 参数
+     */
+    private record Variant(Path jar, List<String> jvmArgs) {
+    }
+}
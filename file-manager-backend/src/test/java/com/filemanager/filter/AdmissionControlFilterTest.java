@@ -0,0 +1,61 @@
+package com.filemanager.filter;
+
+import com.filemanager.config.AdmissionProperties;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Size;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * AdmissionControlFilter 按根目录容量收紧类别上限的测试
+ */
+class AdmissionControlFilterTest {
+
+    @Example
+    void defaultLimitsAreScaledToRootCapacity() {
+        Map<String, AdmissionProperties.Limit> limits = new LinkedHashMap<>();
+        limits.put(AdmissionControlFilter.CLASS_TREE, limit(16));
+        limits.put(AdmissionControlFilter.CLASS_READ, limit(32));
+        limits.put(AdmissionControlFilter.CLASS_WRITE, limit(32));
+        limits.put(AdmissionControlFilter.CLASS_DOWNLOAD, limit(32));
+
+        Map<String, Integer> maxLimits = AdmissionControlFilter.maxLimits(limits, 16);
+        assertThat(maxLimits).containsExactly(
+                Map.entry("tree", 4), Map.entry("read", 4), Map.entry("write", 4), Map.entry("download", 4));
+    }
+
+    @Example
+    void limitsWithinCapacityAreKept() {
+        Map<String, AdmissionProperties.Limit> limits = new LinkedHashMap<>();
+        limits.put(AdmissionControlFilter.CLASS_TREE, limit(2));
+        limits.put(AdmissionControlFilter.CLASS_READ, limit(6));
+
+        assertThat(AdmissionControlFilter.maxLimits(limits, 16))
+                .containsEntry("tree", 2).containsEntry("read", 6);
+    }
+
+    @Property
+    void sumNeverExceedsCapacity(@ForAll @Size(min = 1, max = 4) List<@IntRange(min = 1, max = 64) Integer> maxLimits,
+                                 @ForAll @IntRange(min = 4, max = 64) int capacity) {
+        Map<String, AdmissionProperties.Limit> limits = new LinkedHashMap<>();
+        for (int i = 0; i < maxLimits.size(); i++) {
+            limits.put("class" + i, limit(maxLimits.get(i)));
+        }
+        Map<String, Integer> clamped = AdmissionControlFilter.maxLimits(limits, capacity);
+        assertThat(clamped.values()).allSatisfy(value -> assertThat(value).isBetween(1, capacity));
+        assertThat(clamped.values().stream().mapToInt(Integer::intValue).sum()).isLessThanOrEqualTo(capacity);
+    }
+
+    private static AdmissionProperties.Limit limit(int maxLimit) {
+        AdmissionProperties.Limit limit = new AdmissionProperties.Limit();
+        limit.setMaxLimit(maxLimit);
+        return limit;
+    }
+}
@@ -0,0 +1,147 @@
+package com.filemanager.filter;
+
+import com.filemanager.service.ContentHashService;
+import com.filemanager.service.FileService;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.jqwik.api.Example;
+import net.jqwik.api.lifecycle.AfterProperty;
+import net.jqwik.api.lifecycle.BeforeProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * PrecompressedContentFilter 缓存命中时的校验头测试
+ * 下载的 ETag 由哈希索引在后台生成，首次下载缓存的条目没有 ETag，命中缓存时需要补上
+ */
+class PrecompressedContentFilterTest {
+
+    private static final String PATH = "/notes/readme.md";
+
+    private Path file;
+    private FileService fileService;
+    private ContentHashService contentHashService;
+    private PrecompressedContentFilter filter;
+    private final AtomicInteger controllerCalls = new AtomicInteger();
+    private final AtomicReference<String> controllerETag = new AtomicReference<>();
+
+    @BeforeProperty
+    void setUp() throws IOException {
+        file = Files.createTempFile("precompressed", ".md");
+        Files.writeString(file, "# 标题\n".repeat(4096), StandardCharsets.UTF_8);
+
+        fileService = mock(FileService.class);
+        when(fileService.statOnRoot(eq(PATH), any()))
+                .thenAnswer(invocation -> invocation.<FileService.PathOperation<?>>getArgument(1).apply(file));
+        contentHashService = mock(ContentHashService.class);
+
+        filter = new PrecompressedContentFilter(fileService, contentHashService);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "minSize", 8192L);
+        ReflectionTestUtils.setField(filter, "maxEntryBytes", 4194304L);
+        ReflectionTestUtils.setField(filter, "maxCacheBytes", 67108864L);
+        ReflectionTestUtils.setField(filter, "maxConcurrent", 2);
+        filter.init();
+    }
+
+    @AfterProperty
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Example
+    void cachedDownloadPicksUpETagOnceHashIsIndexed() throws Exception {
+        // 首次下载：哈希尚未计算，控制器不返回 ETag，响应被压缩并缓存
+        MockHttpServletResponse first = download(null);
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(first.getHeader(HttpHeaders.ETAG)).isNull();
+        assertThat(controllerCalls).hasValue(1);
+
+        // 后台哈希完成后，命中缓存的响应从索引取得 ETag
+        when(contentHashService.getETag(PATH)).thenReturn("8bc1");
+        MockHttpServletResponse second = download(null);
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo("W/\"8bc1\"");
+        assertThat(second.getContentAsByteArray()).isEqualTo(first.getContentAsByteArray());
+
+        // 携带该 ETag 的 gzip 条件请求返回 304，且不再经过控制器
+        MockHttpServletResponse conditional = download("W/\"8bc1\"");
+        assertThat(conditional.getStatus()).isEqualTo(304);
+        assertThat(conditional.getContentLength()).isZero();
+        assertThat(controllerCalls).hasValue(1);
+    }
+
+    @Example
+    void cachedDownloadWithoutIndexedHashServesFullBody() throws Exception {
+        download(null);
+        when(contentHashService.getETag(PATH)).thenReturn(null);
+
+        MockHttpServletResponse conditional = download("W/\"stale\"");
+        assertThat(conditional.getStatus()).isEqualTo(200);
+        assertThat(conditional.getHeader(HttpHeaders.ETAG)).isNull();
+        assertThat(conditional.getContentAsByteArray()).isNotEmpty();
+    }
+
+    @Example
+    void keepsETagFromFirstResponse() throws Exception {
+        controllerETag.set("W/\"abcd\"");
+        MockHttpServletResponse first = download(null);
+        assertThat(first.getHeader(HttpHeaders.ETAG)).isEqualTo("W/\"abcd\"");
+
+        MockHttpServletResponse conditional = download("W/\"abcd\"");
+        assertThat(conditional.getStatus()).isEqualTo(304);
+        assertThat(controllerCalls).hasValue(1);
+    }
+
+    @Example
+    void parsesAcceptEncoding() {
+        assertThat(PrecompressedContentFilter.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(PrecompressedContentFilter.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(PrecompressedContentFilter.acceptsGzip("*")).isTrue();
+        assertThat(PrecompressedContentFilter.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(PrecompressedContentFilter.acceptsGzip("identity")).isFalse();
+        assertThat(PrecompressedContentFilter.acceptsGzip(null)).isFalse();
+    }
+
+    private MockHttpServletResponse download(String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files/download");
+        request.setParameter("path", PATH);
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        // 模拟控制器：原样写出文件内容，ETag 仅在哈希已建立时返回
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                controllerCalls.incrementAndGet();
+                resp.setContentType("application/octet-stream");
+                if (controllerETag.get() != null) {
+                    resp.setHeader(HttpHeaders.ETAG, controllerETag.get());
+                }
+                resp.getOutputStream().write(Files.readAllBytes(file));
+            }
+        });
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,131 @@
+package com.filemanager.service;
+
+import com.filemanager.exception.FileOperationException;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * CharsetDetector 编码检测测试
+ */
+class CharsetDetectorTest {
+
+    private static final int PREFIX_BYTES = 1024;
+
+    @Example
+    void recognizesByteOrderMarks() {
+        byte[] utf8 = concat(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}, "中文".getBytes(StandardCharsets.UTF_8));
+        assertEncoding(utf8, true, StandardCharsets.UTF_8, 3);
+
+        byte[] utf16le = concat(new byte[]{(byte) 0xFF, (byte) 0xFE}, "ab".getBytes(StandardCharsets.UTF_16LE));
+        assertEncoding(utf16le, true, StandardCharsets.UTF_16LE, 2);
+
+        byte[] utf16be = concat(new byte[]{(byte) 0xFE, (byte) 0xFF}, "ab".getBytes(StandardCharsets.UTF_16BE));
+        assertEncoding(utf16be, true, StandardCharsets.UTF_16BE, 2);
+    }
+
+    @Property
+    void toleratesMultibyteCharacterCutAtPrefixEnd(@ForAll @IntRange(min = 1, max = 2) int cut) {
+        byte[] bytes = "标题：编码检测".getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length - cut;
+
+        // 前缀之后还有内容：末尾被截断的字符不影响判定
+        assertEncoding(bytes, length, false, StandardCharsets.UTF_8, 0);
+        // 前缀即整个文件：截断的字符说明不是 UTF-8
+        assertThat(CharsetDetector.detect(bytes, length, true).charset()).isNotEqualTo(StandardCharsets.UTF_8);
+    }
+
+    @Example
+    void prefersGbkOverGb18030() {
+        assertEncoding("中文笔记".getBytes(CharsetDetector.GBK), true, CharsetDetector.GBK, 0);
+
+        // GBK 无法表示的字符 (U+20000) 只能由 GB18030 的四字节序列解码
+        byte[] gb18030 = "扩展𠀀".getBytes(CharsetDetector.GB18030);
+        assertEncoding(gb18030, true, CharsetDetector.GB18030, 0);
+    }
+
+    @Example
+    void plainAsciiIsUtf8() {
+        assertEncoding("# readme\n".getBytes(StandardCharsets.US_ASCII), true, StandardCharsets.UTF_8, 0);
+    }
+
+    @Example
+    void fallsBackToIso88591() {
+        byte[] bytes = {'c', 'a', 'f', (byte) 0xFF, 'e'};
+        assertEncoding(bytes, true, StandardCharsets.ISO_8859_1, 0);
+    }
+
+    @Example
+    void nulMeansBinaryUnlessUtf16Bom() {
+        assertThat(CharsetDetector.isBinary(new byte[]{'P', 'K', 3, 4, 0, 0}, 6)).isTrue();
+        assertThat(CharsetDetector.isBinary("纯文本".getBytes(StandardCharsets.UTF_8), 9)).isFalse();
+        // NUL 在检测范围之外时不计入
+        assertThat(CharsetDetector.isBinary(new byte[]{'a', 'b', 0}, 2)).isFalse();
+
+        byte[] utf16le = concat(new byte[]{(byte) 0xFF, (byte) 0xFE}, "ab".getBytes(StandardCharsets.UTF_16LE));
+        assertThat(CharsetDetector.isBinary(utf16le, utf16le.length)).isFalse();
+        byte[] utf16be = concat(new byte[]{(byte) 0xFE, (byte) 0xFF}, "ab".getBytes(StandardCharsets.UTF_16BE));
+        assertThat(CharsetDetector.isBinary(utf16be, utf16be.length)).isFalse();
+    }
+
+    @Example
+    void verifiedDetectionReadsPastAsciiPrefix() throws IOException {
+        // 前缀全为 ASCII，GBK 字符出现在前缀之后
+        byte[] bytes = concat("a".repeat(PREFIX_BYTES * 2).getBytes(StandardCharsets.US_ASCII),
+                "中文".getBytes(CharsetDetector.GBK));
+        Path file = Files.createTempFile("charset", ".txt");
+        try {
+            Files.write(file, bytes);
+            assertThat(new CharsetDetector(PREFIX_BYTES, 16).detect(file).charset()).isEqualTo(StandardCharsets.UTF_8);
+
+            CharsetDetector detector = new CharsetDetector(PREFIX_BYTES, 16);
+            assertThat(detector.detectVerified(file).charset()).isEqualTo(CharsetDetector.GBK);
+            // 验证后的结果进入缓存，前缀检测直接使用
+            assertThat(detector.detect(file).charset()).isEqualTo(CharsetDetector.GBK);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Example
+    void verifiedDetectionRejectsNulPastPrefix() throws IOException {
+        byte[] bytes = concat("a".repeat(PREFIX_BYTES * 2).getBytes(StandardCharsets.US_ASCII),
+                new byte[]{(byte) 0xFF, 0, 1});
+        Path file = Files.createTempFile("charset", ".bin");
+        try {
+            Files.write(file, bytes);
+            assertThatThrownBy(() -> new CharsetDetector(PREFIX_BYTES, 16).detectVerified(file))
+                    .isInstanceOf(FileOperationException.class)
+                    .extracting("errorCode").isEqualTo("UNSUPPORTED_TYPE");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void assertEncoding(byte[] bytes, boolean complete, Charset charset, int bomLength) {
+        assertEncoding(bytes, bytes.length, complete, charset, bomLength);
+    }
+
+    private static void assertEncoding(byte[] bytes, int length, boolean complete, Charset charset, int bomLength) {
+        CharsetDetector.TextEncoding encoding = CharsetDetector.detect(bytes, length, complete);
+        assertThat(encoding.charset()).isEqualTo(charset);
+        assertThat(encoding.bom()).hasSize(bomLength);
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
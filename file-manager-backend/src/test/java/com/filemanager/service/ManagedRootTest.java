@@ -0,0 +1,142 @@
+package com.filemanager.service;
+
+import com.filemanager.config.RootsProperties;
+import com.filemanager.exception.FileOperationException;
+import net.jqwik.api.Example;
+import net.jqwik.api.lifecycle.AfterProperty;
+import net.jqwik.api.lifecycle.BeforeProperty;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ManagedRoot 资源隔离测试
+ * 下载占用传输许可，目录树与读写占用 I/O 许可，exists 等元数据操作不等待任何许可
+ */
+class ManagedRootTest {
+
+    private static final int MAX_CONCURRENT = 4;
+    private static final int MAX_TRANSFERS = 2;
+    private static final long ACQUIRE_TIMEOUT_MS = 1000;
+
+    private Path dir;
+    private ManagedRoot root;
+    private ExecutorService callers;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeProperty
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("managed-root");
+        Files.writeString(dir.resolve("a.txt"), "a");
+
+        RootsProperties.Root definition = new RootsProperties.Root();
+        definition.setId("test");
+        definition.setPath(dir.toString());
+        definition.setIoThreads(2);
+        definition.setMaxConcurrent(MAX_CONCURRENT);
+        definition.setMaxTransfers(MAX_TRANSFERS);
+        definition.setAcquireTimeoutMs(ACQUIRE_TIMEOUT_MS);
+        definition.setIoTimeoutMs(10_000);
+        root = new ManagedRoot(definition, 0, false);
+        callers = Executors.newFixedThreadPool(MAX_CONCURRENT);
+    }
+
+    @AfterProperty
+    void tearDown() throws IOException {
+        release.countDown();
+        callers.shutdownNow();
+        root.shutdown();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Example
+    void existsReturnsQuicklyWhileDownloadsAndIoSaturateRoot() {
+        List<Runnable> transfers = new ArrayList<>();
+        for (int i = 0; i < MAX_TRANSFERS; i++) {
+            transfers.add(root.acquireTransferPermit());
+        }
+        saturateIoPermits();
+
+        RootRegistry rootRegistry = mock(RootRegistry.class);
+        when(rootRegistry.current()).thenReturn(root);
+        FileService fileService = new FileServiceImpl(mock(FileTreeSnapshot.class), rootRegistry,
+                mock(CharsetDetector.class));
+
+        long start = System.nanoTime();
+        assertThat(fileService.exists("/a.txt")).isTrue();
+        assertThat(fileService.exists("/missing.txt")).isFalse();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertThat(elapsedMs).isLessThan(ACQUIRE_TIMEOUT_MS / 2);
+
+        // 对照：此时新的 I/O 操作与下载都只能等到超时
+        assertThatThrownBy(() -> root.call(() -> Files.size(dir.resolve("a.txt"))))
+                .isInstanceOf(FileOperationException.class)
+                .extracting("errorCode").isEqualTo("ROOT_BUSY");
+        assertThatThrownBy(root::acquireTransferPermit)
+                .isInstanceOf(FileOperationException.class)
+                .extracting("errorCode").isEqualTo("ROOT_BUSY");
+        transfers.forEach(Runnable::run);
+    }
+
+    @Example
+    void transferPermitsDoNotConsumeIoPermits() throws Exception {
+        List<Runnable> transfers = new ArrayList<>();
+        for (int i = 0; i < MAX_TRANSFERS; i++) {
+            transfers.add(root.acquireTransferPermit());
+        }
+        assertThat(root.stats()).containsEntry("inUseTransfers", MAX_TRANSFERS).containsEntry("inUsePermits", 0);
+        assertThat(root.call(() -> Files.size(dir.resolve("a.txt")))).isEqualTo(1L);
+
+        // 释放操作可重复调用，只归还一次许可
+        Runnable first = transfers.get(0);
+        first.run();
+        first.run();
+        assertThat(root.stats()).containsEntry("inUseTransfers", MAX_TRANSFERS - 1);
+        transfers.add(root.acquireTransferPermit());
+        assertThat(root.stats()).containsEntry("inUseTransfers", MAX_TRANSFERS);
+        transfers.forEach(Runnable::run);
+        assertThat(root.stats()).containsEntry("inUseTransfers", 0);
+    }
+
+    /**
+     * 用阻塞的任务占满全部 I/O 许可 (部分在执行，其余在队列中)
+     */
+    private void saturateIoPermits() {
+        for (int i = 0; i < MAX_CONCURRENT; i++) {
+            callers.submit(() -> root.call(() -> {
+                release.await();
+                return null;
+            }));
+        }
+        waitUntil(() -> (int) root.stats().get("inUsePermits") == MAX_CONCURRENT);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("等待条件超时");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
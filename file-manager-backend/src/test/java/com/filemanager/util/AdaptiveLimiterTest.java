@@ -0,0 +1,123 @@
+package com.filemanager.util;
+
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Size;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * AdaptiveLimiter 自适应并发上限测试
+ */
+class AdaptiveLimiterTest {
+
+    private static final long TARGET_MS = 100;
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(TARGET_MS * 5);
+
+    @Example
+    void backsOffOnOverloadAndGrowsAgain() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(8, 2, 12, TARGET_MS, 0);
+        assertThat(limit(limiter)).isEqualTo(8);
+
+        // 持续超过目标延迟：上限乘性下降，直到下界为止
+        cycle(limiter, SLOW, false);
+        int afterFirstBackoff = limit(limiter);
+        assertThat(afterFirstBackoff).isLessThan(8);
+        for (int i = 0; i < 50; i++) {
+            cycle(limiter, SLOW, false);
+            assertThat(limit(limiter)).isBetween(2, 12);
+        }
+        assertThat(limit(limiter)).isEqualTo(2);
+
+        // 失败的请求同样视为过载
+        AdaptiveLimiter failing = new AdaptiveLimiter(8, 2, 12, TARGET_MS, 0);
+        cycle(failing, FAST, true);
+        assertThat(limit(failing)).isLessThan(8);
+
+        // 延迟恢复且并发接近上限时加性增长，直到上界为止
+        int previous = limit(limiter);
+        for (int i = 0; i < 500; i++) {
+            cycle(limiter, FAST, false);
+            int current = limit(limiter);
+            assertThat(current).isBetween(previous, 12);
+            previous = current;
+        }
+        assertThat(limit(limiter)).isEqualTo(12);
+    }
+
+    @Example
+    void idleTrafficDoesNotRaiseLimit() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(8, 1, 32, TARGET_MS, 0);
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.acquire(0)).isTrue();
+            limiter.release(FAST, false);
+        }
+        assertThat(limit(limiter)).isEqualTo(8);
+    }
+
+    @Property
+    void limitStaysBetweenMinAndMax(@ForAll @Size(max = 200) List<@IntRange(min = 0, max = 2) Integer> outcomes,
+                                    @ForAll @IntRange(min = 1, max = 8) int minLimit,
+                                    @ForAll @IntRange(min = 0, max = 16) int extra) throws Exception {
+        int maxLimit = minLimit + extra;
+        AdaptiveLimiter limiter = new AdaptiveLimiter(maxLimit * 2, minLimit, maxLimit, TARGET_MS, 0);
+        assertThat(limit(limiter)).isEqualTo(maxLimit);
+        for (int outcome : outcomes) {
+            // 0: 正常，1: 超过目标延迟，2: 失败
+            cycle(limiter, outcome == 1 ? SLOW : FAST, outcome == 2);
+            assertThat(limit(limiter)).isBetween(minLimit, maxLimit);
+        }
+    }
+
+    @Example
+    void rejectsWhenLimitAndQueueAreFull() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 1, 1, TARGET_MS, 1);
+        assertThat(limiter.acquire(0)).isTrue();
+
+        // 排队的请求在许可释放后获得执行机会
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((int) limiter.stats().get("waiting") != 1) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+        // 队列已满：立即拒绝
+        assertThat(limiter.acquire(1000)).isFalse();
+
+        limiter.release(FAST, false);
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.stats()).containsEntry("inFlight", 1).containsEntry("accepted", 2L)
+                .containsEntry("rejected", 1L);
+    }
+
+    /**
+     * 占满当前上限后以给定的延迟与结果全部释放
+     */
+    private static void cycle(AdaptiveLimiter limiter, long latencyNanos, boolean failed) throws InterruptedException {
+        int acquired = 0;
+        while (limiter.acquire(0)) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(latencyNanos, failed);
+        }
+    }
+
+    private static int limit(AdaptiveLimiter limiter) {
+        return (int) limiter.stats().get("limit");
+    }
+}
@@ -0,0 +1,102 @@
+package com.filemanager.util;
+
+import com.filemanager.exception.FileOperationException;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.IntRange;
+import net.jqwik.api.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.filemanager.util.SingleFlightTest.waitUntil;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * LruCache 淘汰顺序与 computeIfAbsent 合并计算测试
+ */
+class LruCacheTest {
+
+    @Property
+    void neverExceedsCapacityAndKeepsMostRecentKey(@ForAll @IntRange(min = 1, max = 8) int capacity,
+                                                   @ForAll @Size(max = 64) List<@IntRange(max = 16) Integer> keys) {
+        LruCache<Integer, String> cache = new LruCache<>(capacity);
+        for (Integer key : keys) {
+            cache.put(key, "v" + key);
+            assertThat(cache.size()).isLessThanOrEqualTo(capacity);
+            assertThat(cache.get(key)).isEqualTo("v" + key);
+        }
+    }
+
+    @Example
+    void evictsLeastRecentlyAccessed() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo(3);
+    }
+
+    @Example
+    void concurrentComputeIfAbsentLoadsOnce() throws Exception {
+        LruCache<String, String> cache = new LruCache<>(16);
+        AtomicInteger loads = new AtomicInteger();
+        AtomicInteger callers = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int threads = 8;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    callers.incrementAndGet();
+                    return cache.computeIfAbsent("doc", key -> {
+                        loads.incrementAndGet();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return "<p>" + key + "</p>";
+                    });
+                }));
+            }
+            waitUntil(() -> callers.get() == threads && loads.get() == 1);
+            // 给其余调用留出时间进入等待
+            Thread.sleep(50);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("<p>doc</p>");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(cache.get("doc")).isEqualTo("<p>doc</p>");
+    }
+
+    @Example
+    void failedLoadIsNotCached() {
+        LruCache<String, String> cache = new LruCache<>(4);
+        assertThatThrownBy(() -> cache.computeIfAbsent("doc", key -> {
+            throw new FileOperationException("PREVIEW_ERROR", "渲染失败");
+        })).isInstanceOf(FileOperationException.class);
+
+        assertThat(cache.get("doc")).isNull();
+        assertThat(cache.computeIfAbsent("doc", key -> "ok")).isEqualTo("ok");
+    }
+}
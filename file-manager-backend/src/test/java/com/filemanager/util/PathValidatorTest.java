@@ -0,0 +1,174 @@
+package com.filemanager.util;
+
+import com.filemanager.exception.FileOperationException;
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * PathValidator 路径解析测试
+ * 单次扫描实现 {@link PathValidator#resolveWithinRoot} 与旧实现 (正则 + normalize + startsWith) 对照
+ */
+class PathValidatorTest {
+
+    private static final Pattern LEGACY_TRAVERSAL = Pattern.compile("(^|[/\\\\])\\.\\.[/\\\\]?");
+
+    private static final String ROOT_PATH = "/srv/files/root";
+    private static final Path ROOT = PathValidator.normalizeRoot(ROOT_PATH);
+
+    @Example
+    void emptyAndSeparatorOnlyPathsResolveToRoot() {
+        assertThat(PathValidator.resolveWithinRoot(ROOT, null)).isEqualTo(ROOT);
+        assertThat(PathValidator.resolveWithinRoot(ROOT, "")).isEqualTo(ROOT);
+        assertThat(PathValidator.resolveWithinRoot(ROOT, "/")).isEqualTo(ROOT);
+        assertThat(PathValidator.resolveWithinRoot(ROOT, "//\\")).isEqualTo(ROOT);
+    }
+
+    @Example
+    void rejectsParentSegments() {
+        assertTraversal("..");
+        assertTraversal("/..");
+        assertTraversal("../etc/passwd");
+        assertTraversal("a/../..");
+        assertTraversal("a/..");
+        assertTraversal("a\\..\\..\\b");
+        assertTraversal("/../root2/secret.txt");
+    }
+
+    @Example
+    void rejectsSegmentsStartingWithTwoDots() {
+        // 与旧实现一致：以 ".." 开头的片段一律拒绝
+        assertTraversal("..foo");
+        assertTraversal("a/..foo/b");
+    }
+
+    @Example
+    void acceptsDotsInsideNames() {
+        assertThat(PathValidator.resolveWithinRoot(ROOT, "foo..")).isEqualTo(ROOT.resolve("foo.."));
+        assertThat(PathValidator.resolveWithinRoot(ROOT, "a/b..c/.hidden"))
+                .isEqualTo(ROOT.resolve("a/b..c/.hidden"));
+    }
+
+    @Example
+    void normalizesCurrentDirectorySegments() {
+        assertThat(PathValidator.resolveWithinRoot(ROOT, "./a")).isEqualTo(ROOT.resolve("a"));
+        assertThat(PathValidator.resolveWithinRoot(ROOT, "a/./b/.")).isEqualTo(ROOT.resolve("a/b"));
+        assertThat(PathValidator.resolveWithinRoot(ROOT, "/.")).isEqualTo(ROOT);
+    }
+
+    @Example
+    void rejectsNul() {
+        assertThatThrownBy(() -> PathValidator.resolveWithinRoot(ROOT, "a\0b"))
+                .isInstanceOf(FileOperationException.class)
+                .extracting("errorCode").isEqualTo("INVALID_PATH");
+    }
+
+    @Example
+    void absolutePathsStayUnderRoot() {
+        assertThat(PathValidator.resolveWithinRoot(ROOT, "/etc/passwd")).isEqualTo(ROOT.resolve("etc/passwd"));
+        assertThat(PathValidator.resolveWithinRoot(ROOT, "//etc/passwd")).isEqualTo(ROOT.resolve("etc/passwd"));
+        assertThat(PathValidator.resolveWithinRoot(ROOT, "\\etc\\passwd").startsWith(ROOT)).isTrue();
+    }
+
+    @Example
+    void rootPrefixSiblingIsNotInsideRoot() {
+        // "/srv/files/root2" 与根目录有相同的字符串前缀，但不是根目录内的路径
+        assertThat(Paths.get(ROOT_PATH + "2").startsWith(ROOT)).isFalse();
+        assertThat(PathValidator.resolveWithinRoot(ROOT, ROOT_PATH + "2/a").startsWith(ROOT)).isTrue();
+        assertTraversal("../root2");
+        assertTraversal("./../root2/a");
+    }
+
+    /**
+     * 单次扫描实现接受的路径一定位于根目录内，且已规范化
+     */
+    @Property(tries = 2000)
+    void acceptedPathsAreNormalizedAndInsideRoot(@ForAll("paths") String path) {
+        Path resolved;
+        try {
+            resolved = PathValidator.resolveWithinRoot(ROOT, path);
+        } catch (FileOperationException e) {
+            return;
+        }
+        assertThat(resolved.isAbsolute()).isTrue();
+        assertThat(resolved).isEqualTo(resolved.normalize());
+        assertThat(resolved.startsWith(ROOT)).isTrue();
+        // 旧实现的包含性检查同样成立
+        assertThat(resolved.toAbsolutePath().normalize().startsWith(ROOT)).isTrue();
+    }
+
+    /**
+     * 与旧实现的接受/拒绝结果及解析结果一致
+     * 旧实现只去掉一个前导 "/"，新实现去掉全部前导分隔符，因此以去掉前导分隔符后的路径对照
+     */
+    @Property(tries = 2000)
+    void agreesWithLegacyImplementation(@ForAll("paths") String path) {
+        Path legacy = legacyResolve(stripLeadingSeparators(path));
+        Path current;
+        try {
+            current = PathValidator.resolveWithinRoot(ROOT, path);
+        } catch (FileOperationException e) {
+            assertThat(legacy).as("新实现拒绝但旧实现接受: %s", path).isNull();
+            return;
+        }
+        assertThat(legacy).as("旧实现拒绝但新实现接受: %s", path).isNotNull();
+        assertThat(current).isEqualTo(legacy);
+    }
+
+    @Property(tries = 500)
+    void traversalMatchesLegacyPattern(@ForAll("paths") String path) {
+        assertThat(PathValidator.containsPathTraversal(path)).isEqualTo(LEGACY_TRAVERSAL.matcher(path).find());
+    }
+
+    @Provide
+    Arbitrary<String> paths() {
+        Arbitrary<String> segment = Arbitraries.oneOf(
+                Arbitraries.of("", ".", "..", "...", "..foo", "foo..", ".hidden", "root", "root2", "a", "b c",
+                        "x.txt", "\0", "C:", "~"),
+                Arbitraries.strings().withChars("ab.\\/ ").ofMaxLength(4));
+        Arbitrary<String> separator = Arbitraries.of("/", "\\", "//", "/./");
+        return Arbitraries.oneOf(segment, separator).list().ofMaxSize(8)
+                .map(parts -> String.join("", parts));
+    }
+
+    /**
+     * 旧实现：正则检查遍历片段，去掉一个前导 "/" 后解析，再以 normalize + startsWith 检查；拒绝时返回 null
+     */
+    private static Path legacyResolve(String path) {
+        if (LEGACY_TRAVERSAL.matcher(path).find()) {
+            return null;
+        }
+        try {
+            Path root = Paths.get(ROOT_PATH).toAbsolutePath().normalize();
+            Path resolved = root.resolve(path.startsWith("/") ? path.substring(1) : path)
+                    .toAbsolutePath().normalize();
+            return resolved.startsWith(root) ? resolved : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String stripLeadingSeparators(String path) {
+        int start = 0;
+        while (start < path.length() && (path.charAt(start) == '/' || path.charAt(start) == '\\')) {
+            start++;
+        }
+        return path.substring(start);
+    }
+
+    private static void assertTraversal(String path) {
+        assertThatThrownBy(() -> PathValidator.resolveWithinRoot(ROOT, path))
+                .isInstanceOf(FileOperationException.class)
+                .extracting("errorCode").isEqualTo("PATH_TRAVERSAL");
+    }
+}
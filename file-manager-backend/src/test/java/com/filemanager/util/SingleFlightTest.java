@@ -0,0 +1,162 @@
+package com.filemanager.util;
+
+import com.filemanager.exception.FileOperationException;
+import net.jqwik.api.Example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * SingleFlight 合并执行测试
+ */
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    @Example
+    void concurrentCallersShareOneExecution() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(0, 16, 10_000);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(pool.submit(() -> flight.execute("/docs", () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return "tree";
+                })));
+            }
+            // 其余调用全部加入进行中的计算后再放行首个调用
+            waitUntil(() -> flight.stats().get("coalesced") == CALLERS - 1);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("tree");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(executions).hasValue(1);
+        assertThat(flight.stats()).containsEntry("executions", 1L).containsEntry("inFlight", 0L);
+    }
+
+    @Example
+    void leaderExceptionReachesEveryWaiter() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(0, 16, 10_000);
+        FileOperationException failure = new FileOperationException("FILE_READ_ERROR", "读取失败");
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Throwable>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(pool.submit(() -> {
+                    try {
+                        flight.execute("/docs", () -> {
+                            await(release);
+                            throw failure;
+                        });
+                        return null;
+                    } catch (RuntimeException e) {
+                        return e;
+                    }
+                }));
+            }
+            waitUntil(() -> flight.stats().get("coalesced") == CALLERS - 1);
+            release.countDown();
+
+            for (Future<Throwable> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(failure);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // 失败的结果不会被复用，下一次调用重新执行
+        assertThat(flight.execute("/docs", () -> "retry")).isEqualTo("retry");
+    }
+
+    @Example
+    void waiterGivesUpAfterMaxWait() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(0, 16, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = pool.submit(() -> flight.execute("/slow", () -> {
+                await(release);
+                return "done";
+            }));
+            waitUntil(() -> flight.stats().get("inFlight") == 1);
+
+            assertThatThrownBy(() -> flight.execute("/slow", () -> "never"))
+                    .isInstanceOf(FileOperationException.class)
+                    .extracting("errorCode").isEqualTo("ROOT_BUSY");
+
+            // 等待者超时不影响进行中的计算
+            release.countDown();
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Example
+    void reusesCompletedResultUntilInvalidated() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(60_000, 16, 1_000);
+        AtomicInteger executions = new AtomicInteger();
+
+        assertThat(flight.execute("/a", executions::incrementAndGet)).isEqualTo(1);
+        assertThat(flight.execute("/a", executions::incrementAndGet)).isEqualTo(1);
+        assertThat(flight.stats()).containsEntry("reused", 1L);
+
+        flight.invalidate();
+        assertThat(flight.execute("/a", executions::incrementAndGet)).isEqualTo(2);
+    }
+
+    @Example
+    void resultStartedBeforeInvalidationIsNotReused() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(60_000, 16, 1_000);
+        AtomicInteger executions = new AtomicInteger();
+
+        // 计算进行中发生写操作，该结果可能已过期，不进入复用窗口
+        flight.execute("/a", () -> {
+            flight.invalidate();
+            return executions.incrementAndGet();
+        });
+        assertThat(flight.execute("/a", executions::incrementAndGet)).isEqualTo(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("测试等待超时");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("条件未在 5 秒内满足");
+            }
+            Thread.sleep(5);
+        }
+    }
+}
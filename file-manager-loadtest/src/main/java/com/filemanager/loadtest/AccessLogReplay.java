@@ -0,0 +1,123 @@
+package com.filemanager.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 访问日志回放
+ * 读取 Tomcat 访问日志 (common / combined 格式，server.tomcat.accesslog 默认输出)，
+ * 按记录的时间间隔 (可加速) 重新发出其中的 GET 请求；同一秒内的请求在该秒内均匀分布。
+ * 日志中不包含请求体，PUT/POST 请求会被跳过并计数。
+ */
+public class AccessLogReplay {
+
+    private static final Pattern LINE = Pattern.compile(
+            "^\\S+ \\S+ \\S+ \\[([^\\]]+)] \"(\\S+) (\\S+)[^\"]*\" (\\d{3}) .*$");
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("dd/MMM/yyyy:HH:mm:ss Z", Locale.ENGLISH);
+
+    private record Entry(long epochSecond, String operation, URI uri) {
+    }
+
+    public static void run(Options options) throws IOException {
+        URI baseUrl = OpenLoopDriver.requireLoopback(options.get("url", "http://127.0.0.1:8080"));
+        Duration timeout = options.getDuration("timeout", Duration.ofSeconds(30));
+        double speed = options.getDouble("speed", 1.0);
+        String rootId = options.get("root-id", null);
+
+        List<Entry> entries = new ArrayList<>();
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(options.require("log")), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Entry entry = parse(line);
+                if (entry == null) {
+                    skipped++;
+                } else {
+                    entries.add(entry);
+                }
+            }
+        }
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("日志中没有可回放的 GET 请求");
+        }
+        System.out.printf("回放 %d 个请求 (跳过 %d 行)，速度 x%.1f%n", entries.size(), skipped, speed);
+
+        List<OpenLoopDriver.PlannedRequest> plan = schedule(entries, speed, baseUrl, rootId, timeout);
+        OpenLoopDriver driver = new OpenLoopDriver(options.getInt("threads", 8),
+                options.getInt("max-in-flight", 10_000), Duration.ofSeconds(5));
+        LatencyReport report = driver.run(plan.iterator(), 0, Long.MAX_VALUE);
+        String hgrm = options.get("hgrm", null);
+        if (hgrm != null) {
+            report.writePercentiles(Path.of(hgrm));
+        }
+    }
+
+    /**
+     * 解析一行日志，非 /api/files 的 GET 请求或无法解析的行 (包括非法的请求 URI) 返回 null
+     */
+    static Entry parse(String line) {
+        Matcher matcher = LINE.matcher(line);
+        if (!matcher.matches() || !"GET".equals(matcher.group(2))) {
+            return null;
+        }
+        String uri = matcher.group(3);
+        if (!uri.startsWith("/api/files/")) {
+            return null;
+        }
+        try {
+            long epochSecond = OffsetDateTime.parse(matcher.group(1), TIME).toEpochSecond();
+            int query = uri.indexOf('?');
+            String operation = uri.substring("/api/files/".length(), query >= 0 ? query : uri.length());
+            return new Entry(epochSecond, operation, new URI(uri));
+        } catch (DateTimeParseException | URISyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 将日志时间换算为相对计划时刻：同一秒内的 n 个请求均匀分布在该秒内，再按速度缩放
+     */
+    private static List<OpenLoopDriver.PlannedRequest> schedule(List<Entry> entries, double speed, URI baseUrl,
+                                                                String rootId, Duration timeout) {
+        entries.sort((a, b) -> Long.compare(a.epochSecond(), b.epochSecond()));
+        long first = entries.get(0).epochSecond();
+        List<OpenLoopDriver.PlannedRequest> plan = new ArrayList<>(entries.size());
+        int i = 0;
+        while (i < entries.size()) {
+            int j = i;
+            while (j < entries.size() && entries.get(j).epochSecond() == entries.get(i).epochSecond()) {
+                j++;
+            }
+            int count = j - i;
+            for (int k = 0; k < count; k++) {
+                Entry entry = entries.get(i + k);
+                double seconds = (entry.epochSecond() - first) + (double) k / count;
+                HttpRequest.Builder builder = HttpRequest.newBuilder(baseUrl.resolve(entry.uri()))
+                        .timeout(timeout)
+                        .GET();
+                if (rootId != null) {
+                    builder.header("X-File-Root", rootId);
+                }
+                plan.add(new OpenLoopDriver.PlannedRequest((long) (seconds / speed * 1e9), entry.operation(),
+                        builder.build()));
+            }
+            i = j;
+        }
+        return plan;
+    }
+}
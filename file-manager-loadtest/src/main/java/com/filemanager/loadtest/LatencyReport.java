@@ -0,0 +1,127 @@
+package com.filemanager.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 压测结果统计
+ * 每种操作分别记录两类延迟：
+ * 响应时间 = 完成时刻 - 计划发送时刻 (包含调度排队，不受协调遗漏影响)；
+ * 服务时间 = 完成时刻 - 实际发送时刻。
+ * 被客户端丢弃的请求以请求超时时间计入响应时间 (不计入服务时间)，并单独计数。
+ */
+public class LatencyReport {
+
+    // 1 微秒 ~ 1 小时，3 位有效数字
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private final OperationStats total = new OperationStats();
+
+    public void record(String operation, long responseNanos, long serviceNanos, int status, long bytes) {
+        operations.computeIfAbsent(operation, name -> new OperationStats()).record(responseNanos, serviceNanos, status, bytes);
+        total.record(responseNanos, serviceNanos, status, bytes);
+    }
+
+    public void recordFailure(String operation, long responseNanos, long serviceNanos) {
+        operations.computeIfAbsent(operation, name -> new OperationStats()).recordFailure(responseNanos, serviceNanos);
+        total.recordFailure(responseNanos, serviceNanos);
+    }
+
+    public void recordDropped(String operation, long timeoutNanos) {
+        operations.computeIfAbsent(operation, name -> new OperationStats()).recordDropped(timeoutNanos);
+        total.recordDropped(timeoutNanos);
+    }
+
+    public long completed() {
+        return total.responseTime.getTotalCount();
+    }
+
+    /**
+     * 打印汇总表
+     * @param elapsedNanos 计入统计的时间段长度，用于计算吞吐量
+     */
+    public void print(PrintStream out, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        out.println();
+        out.printf("%-10s %8s %9s %6s %6s %6s %6s %7s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "req/s", "2xx", "4xx", "5xx", "error", "dropped",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99");
+        new TreeMap<>(operations).forEach((name, stats) -> printRow(out, name, stats, seconds));
+        printRow(out, "total", total, seconds);
+        out.printf("%n吞吐量: %.1f req/s, %.2f MB/s%n", total.responseTime.getTotalCount() / seconds,
+                total.bytes.sum() / 1024.0 / 1024.0 / seconds);
+    }
+
+    private void printRow(PrintStream out, String name, OperationStats stats, double seconds) {
+        Histogram h = stats.responseTime;
+        out.printf("%-10s %8d %9.1f %6d %6d %6d %6d %7d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, h.getTotalCount(), h.getTotalCount() / seconds,
+                stats.status2xx.sum(), stats.status4xx.sum(), stats.status5xx.sum(),
+                stats.errors.sum(), stats.dropped.sum(),
+                millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)),
+                millis(h.getMaxValue()), millis(stats.serviceTime.getValueAtPercentile(99)));
+    }
+
+    /**
+     * 输出完整的百分位分布 (.hgrm 格式，可用 HdrHistogram 在线工具绘图)
+     */
+    public void writePercentiles(Path file) throws IOException {
+        try (PrintStream out = new PrintStream(new FileOutputStream(file.toFile()))) {
+            total.responseTime.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static class OperationStats {
+        private final Histogram responseTime = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+        private final Histogram serviceTime = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+        private final LongAdder status2xx = new LongAdder();
+        private final LongAdder status4xx = new LongAdder();
+        private final LongAdder status5xx = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+
+        void record(long responseNanos, long serviceNanos, int status, long size) {
+            recordLatency(responseNanos, serviceNanos);
+            if (status >= 500) {
+                status5xx.increment();
+            } else if (status >= 400) {
+                status4xx.increment();
+            } else {
+                status2xx.increment();
+            }
+            bytes.add(size);
+        }
+
+        void recordFailure(long responseNanos, long serviceNanos) {
+            recordLatency(responseNanos, serviceNanos);
+            errors.increment();
+        }
+
+        void recordDropped(long timeoutNanos) {
+            responseTime.recordValue(Math.min(MAX_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(timeoutNanos)));
+            dropped.increment();
+        }
+
+        private void recordLatency(long responseNanos, long serviceNanos) {
+            responseTime.recordValue(Math.min(MAX_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(responseNanos)));
+            serviceTime.recordValue(Math.min(MAX_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(serviceNanos)));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.filemanager.loadtest;
+
+/**
+ * 压测工具入口
+ *
+ * generate  生成合成根目录
+ * run       以目标速率对本机服务施加混合负载
+ * replay    回放 Tomcat 访问日志
+ *
+ * 参数说明见 README。
+ */
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage();
+            System.exit(1);
+        }
+        Options options = new Options(args, 1);
+        try {
+            switch (args[0]) {
+                case "generate" -> SyntheticRootGenerator.run(options);
+                case "run" -> SyntheticWorkload.run(options);
+                case "replay" -> AccessLogReplay.run(options);
+                default -> {
+                    usage();
+                    System.exit(1);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("错误: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    private static void usage() {
+        System.err.println("""
+                用法: java -jar file-manager-loadtest.jar <command> [options]
+
+                generate --dir <path> [--depth 3] [--fan-out 4] [--files-per-dir 10]
+                         [--text-ratio 0.7] [--sizes lognormal:4096,1.5] [--seed 42]
+                run      --dir <path> [--url http://127.0.0.1:8080] [--rate 100] [--arrival fixed|poisson]
+                         [--mix tree=5,content=40,save=5,download=20,exists=30]
+                         [--duration 60s] [--warmup 10s] [--timeout 30s] [--root-id <id>] [--hgrm <file>]
+                replay   --log <access_log> [--url http://127.0.0.1:8080] [--speed 1.0] [--root-id <id>] [--hgrm <file>]
+                """);
+    }
+}
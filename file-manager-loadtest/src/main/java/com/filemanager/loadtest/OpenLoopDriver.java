@@ -0,0 +1,141 @@
+package com.filemanager.loadtest;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开环请求驱动器
+ * 请求按预先计划的时刻异步发出，不等待前一个请求完成，服务端变慢时发送速率不会随之下降；
+ * 延迟从计划时刻开始计算，调度线程自身落后的时间同样计入，避免协调遗漏 (coordinated omission)。
+ * 执行中的请求达到上限时丢弃的请求按请求超时时间计入响应时间分布，不会从百分位中消失。
+ */
+public class OpenLoopDriver {
+
+    /**
+     * 计划中的请求
+     * @param offsetNanos 相对压测开始的计划发送时刻
+     */
+    public record PlannedRequest(long offsetNanos, String operation, HttpRequest request) {
+    }
+
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final LatencyReport report = new LatencyReport();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // 请求未设置超时时，丢弃请求计入的响应时间
+    private static final Duration DEFAULT_DROP_LATENCY = Duration.ofSeconds(30);
+
+    public OpenLoopDriver(int threads, int maxInFlight, Duration connectTimeout) {
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .executor(executor)
+                .build();
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * 只允许对本机地址施压
+     */
+    public static URI requireLoopback(String baseUrl) {
+        URI uri = URI.create(baseUrl);
+        try {
+            if (uri.getHost() == null || !InetAddress.getByName(uri.getHost()).isLoopbackAddress()) {
+                throw new IllegalArgumentException("只允许对本机地址施压: " + baseUrl);
+            }
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("无法解析地址: " + baseUrl, e);
+        }
+        return uri;
+    }
+
+    /**
+     * 按计划发送请求，直到计划耗尽或超过时长
+     * @param warmupNanos 预热时长，计划时刻早于该值的请求照常发送但不计入统计
+     * @param durationNanos 压测总时长 (含预热)
+     */
+    public LatencyReport run(Iterator<PlannedRequest> plan, long warmupNanos, long durationNanos) {
+        AtomicLong lastProgress = new AtomicLong();
+        long start = System.nanoTime();
+        long lastOffset = 0;
+        while (plan.hasNext()) {
+            PlannedRequest planned = plan.next();
+            if (planned.offsetNanos() > durationNanos) {
+                break;
+            }
+            lastOffset = planned.offsetNanos();
+            long intended = start + planned.offsetNanos();
+            sleepUntil(intended);
+            boolean measured = planned.offsetNanos() >= warmupNanos;
+
+            if (inFlight.get() >= maxInFlight) {
+                // 客户端自身保护：丢弃的请求单独计数并按超时计入响应时间，结果中应视为服务端无法承受该速率
+                if (measured) {
+                    report.recordDropped(planned.operation(),
+                            planned.request().timeout().orElse(DEFAULT_DROP_LATENCY).toNanos());
+                }
+                continue;
+            }
+            inFlight.incrementAndGet();
+            long sent = System.nanoTime();
+            AtomicLong bytes = new AtomicLong();
+            client.sendAsync(planned.request(), HttpResponse.BodyHandlers.ofByteArrayConsumer(
+                            chunk -> chunk.ifPresent(b -> bytes.addAndGet(b.length))))
+                    .whenComplete((response, error) -> {
+                        long done = System.nanoTime();
+                        inFlight.decrementAndGet();
+                        if (!measured) {
+                            return;
+                        }
+                        if (error != null) {
+                            report.recordFailure(planned.operation(), done - intended, done - sent);
+                        } else {
+                            report.record(planned.operation(), done - intended, done - sent,
+                                    response.statusCode(), bytes.get());
+                        }
+                    });
+
+            long now = System.nanoTime();
+            if (now - lastProgress.get() > TimeUnit.SECONDS.toNanos(5)) {
+                lastProgress.set(now);
+                System.out.printf("[%3ds] 已完成 %d，执行中 %d%n",
+                        TimeUnit.NANOSECONDS.toSeconds(now - start), report.completed(), inFlight.get());
+            }
+        }
+
+        // 等待剩余请求完成
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        executor.shutdownNow();
+        report.print(System.out, Math.max(1, lastOffset - warmupNanos));
+        return report;
+    }
+
+    private static void sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
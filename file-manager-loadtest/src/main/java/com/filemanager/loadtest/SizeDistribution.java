@@ -0,0 +1,48 @@
+package com.filemanager.loadtest;
+
+import java.util.Random;
+
+/**
+ * 文件大小分布
+ * 支持的格式：
+ * fixed:4096
+ * uniform:1024-65536
+ * lognormal:4096,1.5   (中位数, sigma)
+ */
+public interface SizeDistribution {
+
+    /**
+     * 采样一个文件大小 (字节)
+     */
+    long sample(Random random);
+
+    static SizeDistribution parse(String spec) {
+        int colon = spec.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("无效的大小分布: " + spec);
+        }
+        String type = spec.substring(0, colon);
+        String args = spec.substring(colon + 1);
+        switch (type) {
+            case "fixed" -> {
+                long size = Long.parseLong(args);
+                return random -> size;
+            }
+            case "uniform" -> {
+                String[] range = args.split("-");
+                long min = Long.parseLong(range[0]);
+                long max = Long.parseLong(range[1]);
+                return random -> min + (long) (random.nextDouble() * (max - min + 1));
+            }
+            case "lognormal" -> {
+                String[] params = args.split(",");
+                double mu = Math.log(Double.parseDouble(params[0]));
+                double sigma = Double.parseDouble(params[1]);
+                // 上限避免极端长尾生成过大的文件
+                long cap = params.length > 2 ? Long.parseLong(params[2]) : 64L * 1024 * 1024;
+                return random -> Math.min(cap, Math.max(0, Math.round(Math.exp(mu + sigma * random.nextGaussian()))));
+            }
+            default -> throw new IllegalArgumentException("未知的大小分布类型: " + type);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.filemanager.loadtest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 合成请求负载
+ * 按权重混合 tree / content / save / download / exists 请求，以固定速率 (或泊松到达) 生成请求计划。
+ * 请求路径取自本地根目录的实际内容，因此需与服务端使用同一目录。
+ */
+public class SyntheticWorkload implements Iterator<OpenLoopDriver.PlannedRequest> {
+
+    private static final Set<String> TEXT_EXTENSIONS = Set.of("txt", "md", "json");
+    private static final Set<String> OPERATIONS = Set.of("tree", "content", "save", "download", "exists");
+    private static final String DEFAULT_MIX = "tree=5,content=40,save=5,download=20,exists=30";
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final URI baseUrl;
+    private final String rootId;
+    private final Duration timeout;
+    private final Random random;
+    private final double intervalNanos;
+    private final boolean poisson;
+
+    private final List<String> operations = new ArrayList<>();
+    private final double[] cumulativeWeights;
+    private final List<String> directories = new ArrayList<>();
+    private final List<String> textFiles = new ArrayList<>();
+    private final List<String> allFiles = new ArrayList<>();
+
+    private double nextOffset;
+    private long saveCounter;
+
+    public SyntheticWorkload(URI baseUrl, String rootId, Duration timeout, Path root, double rate,
+                             boolean poisson, String mix, long seed) throws IOException {
+        this.baseUrl = baseUrl;
+        this.rootId = rootId;
+        this.timeout = timeout;
+        this.random = new Random(seed);
+        this.intervalNanos = 1e9 / rate;
+        this.poisson = poisson;
+
+        Map<String, Double> weights = parseMix(mix);
+        this.cumulativeWeights = new double[weights.size()];
+        double sum = 0;
+        for (Map.Entry<String, Double> entry : weights.entrySet()) {
+            sum += entry.getValue();
+            cumulativeWeights[operations.size()] = sum;
+            operations.add(entry.getKey());
+        }
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            cumulativeWeights[i] /= sum;
+        }
+        scan(root);
+    }
+
+    public static void run(Options options) throws IOException {
+        URI baseUrl = OpenLoopDriver.requireLoopback(options.get("url", "http://127.0.0.1:8080"));
+        Duration timeout = options.getDuration("timeout", Duration.ofSeconds(30));
+        SyntheticWorkload workload = new SyntheticWorkload(baseUrl,
+                options.get("root-id", null),
+                timeout,
+                Path.of(options.require("dir")),
+                options.getDouble("rate", 100),
+                "poisson".equals(options.get("arrival", "fixed")),
+                options.get("mix", DEFAULT_MIX),
+                options.getLong("seed", 42));
+        OpenLoopDriver driver = new OpenLoopDriver(options.getInt("threads", 8),
+                options.getInt("max-in-flight", 10_000), Duration.ofSeconds(5));
+        LatencyReport report = driver.run(workload,
+                options.getDuration("warmup", Duration.ofSeconds(10)).toNanos(),
+                options.getDuration("duration", Duration.ofSeconds(60)).toNanos());
+        String hgrm = options.get("hgrm", null);
+        if (hgrm != null) {
+            report.writePercentiles(Path.of(hgrm));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return true;
+    }
+
+    @Override
+    public OpenLoopDriver.PlannedRequest next() {
+        long offset = (long) nextOffset;
+        // 泊松到达的间隔服从指数分布，均值与固定速率相同
+        nextOffset += poisson ? -Math.log(1 - random.nextDouble()) * intervalNanos : intervalNanos;
+
+        String operation = pickOperation();
+        HttpRequest request = switch (operation) {
+            case "tree" -> get("/api/files/tree", pick(directories));
+            case "content" -> get("/api/files/content", pick(textFiles));
+            case "download" -> get("/api/files/download", pick(allFiles));
+            case "exists" -> get("/api/files/exists",
+                    random.nextInt(10) == 0 ? "/missing-" + random.nextInt(1000) : pick(allFiles));
+            case "save" -> save(pick(textFiles));
+            default -> throw new IllegalStateException("未知操作: " + operation);
+        };
+        return new OpenLoopDriver.PlannedRequest(offset, operation, request);
+    }
+
+    private HttpRequest get(String endpoint, String path) {
+        return builder(endpoint + "?path=" + URLEncoder.encode(path, StandardCharsets.UTF_8)).GET().build();
+    }
+
+    private HttpRequest save(String path) {
+        String content = "saved by loadtest #" + (++saveCounter) + "\n" + "lorem ipsum dolor sit amet\n".repeat(32);
+        return builder("/api/files/content")
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(saveBody(path, content), StandardCharsets.UTF_8))
+                .build();
+    }
+
+    /**
+     * 保存请求体，路径中的引号、反斜杠与控制字符由 JSON 生成器转义
+     */
+    static String saveBody(String path, String content) {
+        StringWriter body = new StringWriter();
+        try (JsonGenerator generator = JSON.createGenerator(body)) {
+            generator.writeStartObject();
+            generator.writeStringField("path", path);
+            generator.writeStringField("content", content);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return body.toString();
+    }
+
+    private HttpRequest.Builder builder(String pathAndQuery) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUrl.resolve(pathAndQuery))
+                .timeout(timeout)
+                .header("Accept-Encoding", "identity");
+        if (rootId != null) {
+            builder.header("X-File-Root", rootId);
+        }
+        return builder;
+    }
+
+    private String pickOperation() {
+        double r = random.nextDouble();
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return operations.get(i);
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private String pick(List<String> paths) {
+        return paths.get(random.nextInt(paths.size()));
+    }
+
+    /**
+     * 收集根目录下的目录、文本文件与全部文件
+     */
+    private void scan(Path root) throws IOException {
+        try (Stream<Path> stream = Files.walk(root)) {
+            stream.forEach(path -> {
+                String relative = "/" + root.relativize(path).toString().replace('\\', '/');
+                if (Files.isDirectory(path)) {
+                    directories.add(relative);
+                } else {
+                    allFiles.add(relative);
+                    String name = path.getFileName().toString();
+                    String extension = name.substring(name.lastIndexOf('.') + 1);
+                    if (TEXT_EXTENSIONS.contains(extension)) {
+                        textFiles.add(relative);
+                    }
+                }
+            });
+        }
+        if (allFiles.isEmpty() || textFiles.isEmpty()) {
+            throw new IllegalArgumentException("根目录中没有可用的文件，请先执行 generate: " + root);
+        }
+        System.out.printf("负载路径: %d 个目录，%d 个文件 (%d 个文本文件)%n",
+                directories.size(), allFiles.size(), textFiles.size());
+    }
+
+    private static Map<String, Double> parseMix(String mix) {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.split("=");
+            String operation = pair[0].trim();
+            if (!OPERATIONS.contains(operation)) {
+                throw new IllegalArgumentException("未知操作: " + operation + "，可选 " + OPERATIONS);
+            }
+            double weight = Double.parseDouble(pair[1]);
+            if (weight > 0) {
+                weights.put(operation, weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("请求混合比例为空: " + mix);
+        }
+        return weights;
+    }
+}
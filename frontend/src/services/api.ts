@@ -115,6 +115,17 @@ export const fileApi = {
     }
   },
 
+  /**
+   * 在后台预生成目录下图片的缩略图
+   */
+  async prefetchThumbnails(path: string): Promise<number> {
+    const response = await api.post<ApiResponse<number>>('/thumbnail/prefetch', { path })
+    if (!response.data.success) {
+      throw new Error(response.data.message || '预生成缩略图失败')
+    }
+    return response.data.data!
+  },
+
   /**
    * 获取根目录路径
    */
@@ -126,6 +137,17 @@ export const fileApi = {
     return response.data.data!
   },
 
+  /**
+   * 根目录路径是否允许在运行时修改 (由服务端配置决定)
+   */
+  async isRootPathMutable(): Promise<boolean> {
+    const response = await api.get<ApiResponse<boolean>>('/config/root-path/mutable')
+    if (!response.data.success) {
+      throw new Error(response.data.message || '获取根目录配置失败')
+    }
+    return response.data.data!
+  },
+
   /**
    * 设置根目录路径
    */